@@ -0,0 +1,52 @@
+package likide.pretty.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import likide.pretty.PrettyEventSpy;
+import likide.pretty.TermString;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EllipsizeBenchmark {
+
+	private static final String PLAIN = "Built 120/300 projects... Failed: 0 - Success: 120 - Planned: 170 - Skipped: 0";
+	private static final String STATUS = "\033[1;33m…\033[0m synthetic-module-42: process-resources, compile, process-test-resources, test-compile, test\033[1;33m…\033[0m";
+
+	private final StringBuilder buffer = new StringBuilder(256);
+
+	@Benchmark
+	public String plainFits() {
+		return PrettyEventSpy.ellipsize(PLAIN, 120, ">", 1);
+	}
+
+	@Benchmark
+	public String statusFits() {
+		return PrettyEventSpy.ellipsize(STATUS, 120, ">", 1);
+	}
+
+	@Benchmark
+	public String statusTruncated() {
+		return PrettyEventSpy.ellipsize(STATUS, 60, ">", 1);
+	}
+
+	@Benchmark
+	public StringBuilder statusTruncatedReusedBuffer() {
+		buffer.setLength(0);
+		TermString.ellipsize(STATUS, 60, ">", 1, buffer);
+		return buffer;
+	}
+}
@@ -0,0 +1,73 @@
+package likide.pretty.benchmarks;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import likide.pretty.PrettyEventSpy;
+
+/**
+ * Full frame rendering against a null terminal, with progress estimated from a previous build. A third of the reactor
+ * is built, a third is building, a third is planned.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameBenchmark {
+
+	@Param({ "10", "300", "2000" })
+	public int size;
+
+	private PrettyEventSpy spy;
+	private int clock = 0;
+
+	@Setup
+	public void setup() throws Exception {
+		Terminal terminal = new DumbTerminal("null", Terminal.TYPE_DUMB, InputStream.nullInputStream(), OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+		terminal.setSize(new Size(160, 50));
+		SyntheticReactor reactor = new SyntheticReactor(size);
+		spy = PrettyEventSpy.forTerminal(terminal, new PrintStream(OutputStream.nullOutputStream()), reactor.config());
+		spy.onEvent(reactor.sessionStarted());
+		for (int project = 0; project < 2 * size / 3; project++) {
+			spy.onEvent(reactor.project(Type.ProjectStarted, project));
+			int steps = project < size / 3 ? reactor.steps() : project % reactor.steps();
+			for (int step = 0; step < steps; step++) {
+				spy.onEvent(reactor.mojo(Type.MojoStarted, project, step));
+				spy.onEvent(reactor.mojo(Type.MojoSucceeded, project, step));
+			}
+			if (project < size / 3) {
+				spy.onEvent(reactor.project(Type.ProjectSucceeded, project));
+			} else {
+				spy.onEvent(reactor.mojo(Type.MojoStarted, project, steps));
+			}
+			// no output thread, drain events as they are produced
+			spy.printFrame(clock++);
+		}
+	}
+
+	@Benchmark
+	public boolean printFrame() {
+		return spy.printFrame(clock++);
+	}
+}
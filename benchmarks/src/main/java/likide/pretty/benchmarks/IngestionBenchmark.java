@@ -0,0 +1,146 @@
+package likide.pretty.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import likide.pretty.EventRing;
+import likide.pretty.model.ReactorState;
+
+/**
+ * Producer-side cost of event ingestion: the former synchronized path (one monitor, one {@link ArrayDeque} per
+ * project) against {@link EventRing}. A background consumer drains events as the output thread does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestionBenchmark {
+
+	private static final int PROJECTS = 64;
+
+	@State(Scope.Benchmark)
+	public static class Ingestion {
+		final MavenProject[] projects = new MavenProject[PROJECTS];
+		final AtomicInteger producerCount = new AtomicInteger();
+		final AtomicBoolean stopped = new AtomicBoolean();
+		final EventRing ring = new EventRing(8192);
+		// per trial: producers keep their project across iterations
+		final ReactorState state;
+		final Map<MavenProject, Deque<Type>> queues = new ConcurrentHashMap<>();
+		Thread consumer;
+
+		public Ingestion() {
+			for (int i = 0; i < PROJECTS; i++) {
+				projects[i] = new MavenProject();
+				projects[i].setArtifactId("module-" + i);
+			}
+			state = new ReactorState(Arrays.asList(projects));
+		}
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			stopped.set(false);
+			consumer = new Thread(() -> {
+				while (!stopped.get()) {
+					ring.drain((type, project, execution, time, thread) -> {});
+					synchronizedDrain();
+					Thread.yield();
+				}
+			});
+			consumer.setDaemon(true);
+			consumer.start();
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown() throws InterruptedException {
+			stopped.set(true);
+			consumer.join();
+		}
+
+		synchronized void synchronizedOffer(MavenProject project, Type type) {
+			queues.computeIfAbsent(project, (i) -> new ArrayDeque<>(10)).offer(type);
+		}
+
+		synchronized void synchronizedDrain() {
+			for (Deque<Type> queue : queues.values()) {
+				queue.clear();
+			}
+		}
+
+		void ringOffer(MavenProject project, Type type) {
+			int id = state.id(project);
+			while (!ring.offer(type, id, null, System.nanoTime(), Thread.currentThread().getId())) {
+				Thread.yield();
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Producer {
+		MavenProject project;
+
+		@Setup
+		public void setup(Ingestion ingestion) {
+			project = ingestion.projects[ingestion.producerCount.getAndIncrement() % PROJECTS];
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void synchronized1(Ingestion ingestion, Producer producer) {
+		ingestion.synchronizedOffer(producer.project, Type.MojoStarted);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void synchronized8(Ingestion ingestion, Producer producer) {
+		ingestion.synchronizedOffer(producer.project, Type.MojoStarted);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void synchronized64(Ingestion ingestion, Producer producer) {
+		ingestion.synchronizedOffer(producer.project, Type.MojoStarted);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void ring1(Ingestion ingestion, Producer producer) {
+		ingestion.ringOffer(producer.project, Type.MojoStarted);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void ring8(Ingestion ingestion, Producer producer) {
+		ingestion.ringOffer(producer.project, Type.MojoStarted);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void ring64(Ingestion ingestion, Producer producer) {
+		ingestion.ringOffer(producer.project, Type.MojoStarted);
+	}
+}
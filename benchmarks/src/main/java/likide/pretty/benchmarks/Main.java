@@ -0,0 +1,16 @@
+package likide.pretty.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * JMH entry point; GC profiler is always enabled to report allocation rates.
+ */
+public class Main {
+
+	public static void main(String[] args) throws Exception {
+		String[] arguments = Arrays.copyOf(args, args.length + 2);
+		arguments[args.length] = "-prof";
+		arguments[args.length + 1] = "gc";
+		org.openjdk.jmh.Main.main(arguments);
+	}
+}
@@ -0,0 +1,109 @@
+package likide.pretty.benchmarks;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import likide.pretty.PrettyEventSpy;
+
+/**
+ * {@link PrettyEventSpy#onEvent(Object)} throughput from many builder threads while a consumer renders frames. An
+ * operation builds a project: project start, its lifecycle mojos and project end. Once each project is built, a new
+ * session starts, so that state retained by the spy does not grow with the operation count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class OnEventBenchmark {
+
+	private static final int PROJECTS = 64;
+
+	@State(Scope.Benchmark)
+	public static class Session {
+		final SyntheticReactor reactor = new SyntheticReactor(PROJECTS);
+		// events of each project build
+		final ExecutionEvent[][] builds = new ExecutionEvent[PROJECTS][];
+		final AtomicInteger buildCount = new AtomicInteger();
+		final AtomicBoolean stopped = new AtomicBoolean();
+
+		public Session() {
+			for (int project = 0; project < PROJECTS; project++) {
+				List<ExecutionEvent> events = new ArrayList<>();
+				events.add(reactor.project(Type.ProjectStarted, project));
+				for (int step = 0; step < reactor.steps(); step++) {
+					events.add(reactor.mojo(Type.MojoStarted, project, step));
+					events.add(reactor.mojo(Type.MojoSucceeded, project, step));
+				}
+				events.add(reactor.project(Type.ProjectSucceeded, project));
+				builds[project] = events.toArray(new ExecutionEvent[0]);
+			}
+		}
+		PrettyEventSpy spy;
+		Thread consumer;
+
+		@Setup(Level.Iteration)
+		public void setup() throws Exception {
+			Terminal terminal = new DumbTerminal("null", Terminal.TYPE_DUMB, InputStream.nullInputStream(), OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+			terminal.setSize(new Size(160, 50));
+			spy = PrettyEventSpy.forTerminal(terminal, new PrintStream(OutputStream.nullOutputStream()), reactor.config());
+			spy.onEvent(reactor.sessionStarted());
+			buildCount.set(0);
+			stopped.set(false);
+			consumer = new Thread(() -> {
+				int clock = 0;
+				while (!stopped.get()) {
+					spy.printFrame(clock++);
+				}
+			});
+			consumer.setDaemon(true);
+			consumer.start();
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown() throws InterruptedException {
+			stopped.set(true);
+			consumer.join();
+		}
+	}
+
+	@Benchmark
+	public void onEvent(Session session) throws Exception {
+		int build = session.buildCount.getAndIncrement();
+		int project = build % PROJECTS;
+		if (project == 0 && build > 0) {
+			// projects still building finish in the new session, as rebuilt projects
+			session.spy.onEvent(session.reactor.sessionStarted());
+		}
+		for (ExecutionEvent event : session.builds[project]) {
+			session.spy.onEvent(event);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package likide.pretty.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import likide.pretty.model.ProjectStatus;
+import likide.pretty.model.ProjectStep;
+import likide.pretty.model.Status;
+
+/**
+ * Status line rendering of a building project after <code>steps</code> mojo executions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProjectStatusBenchmark {
+
+	@Param({ "7", "42" })
+	public int steps;
+
+	private ProjectStatus building;
+	private ProjectStatus success;
+	private int clock = 0;
+
+	@Setup
+	public void setup() {
+		SyntheticReactor reactor = new SyntheticReactor(1);
+		MavenProject project = reactor.getProjects().get(0);
+		building = new ProjectStatus(project);
+		success = new ProjectStatus(project);
+		for (int i = 0; i < steps; i++) {
+			ProjectStep started = new ProjectStep(reactor.execution(i % reactor.steps()), Type.MojoStarted);
+			ProjectStep succeeded = new ProjectStep(reactor.execution(i % reactor.steps()), Type.MojoSucceeded);
+			building.update(Status.BUILDING, started);
+			building.update(Status.BUILDING, succeeded);
+			success.update(Status.BUILDING, started);
+			success.update(Status.BUILDING, succeeded);
+		}
+		building.update(Status.BUILDING, new ProjectStep(reactor.execution(0), Type.MojoStarted));
+		success.update(Status.SUCCESS, null);
+	}
+
+	@Benchmark
+	public String buildingToString() {
+		return building.toString(clock++);
+	}
+
+	@Benchmark
+	public String buildingLastPhases() {
+		return building.lastPhases(clock++);
+	}
+
+	@Benchmark
+	public String successToString() {
+		return success.toString(clock++);
+	}
+}
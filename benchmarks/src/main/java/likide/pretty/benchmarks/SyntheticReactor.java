@@ -0,0 +1,141 @@
+package likide.pretty.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import likide.pretty.Config;
+import likide.pretty.timing.TimingStore;
+
+/**
+ * Multi-module session with a default jar lifecycle, and events for its projects.
+ */
+public class SyntheticReactor {
+
+	private static final String[][] LIFECYCLE = {
+			{ "maven-resources-plugin", "resources", "process-resources" },
+			{ "maven-compiler-plugin", "compile", "compile" },
+			{ "maven-resources-plugin", "testResources", "process-test-resources" },
+			{ "maven-compiler-plugin", "testCompile", "test-compile" },
+			{ "maven-surefire-plugin", "test", "test" },
+			{ "maven-jar-plugin", "jar", "package" },
+			{ "maven-install-plugin", "install", "install" } };
+
+	private final List<MavenProject> projects = new ArrayList<>();
+	private final MojoExecution[] executions = new MojoExecution[LIFECYCLE.length];
+	private final MavenSession session;
+
+	@SuppressWarnings("deprecation")
+	public SyntheticReactor(int size) {
+		for (int i = 0; i < size; i++) {
+			MavenProject project = new MavenProject();
+			project.setGroupId("likide.synthetic");
+			project.setArtifactId("synthetic-module-" + i);
+			project.setVersion("1.0.0-SNAPSHOT");
+			projects.add(project);
+		}
+		for (int i = 0; i < LIFECYCLE.length; i++) {
+			Plugin plugin = new Plugin();
+			plugin.setArtifactId(LIFECYCLE[i][0]);
+			executions[i] = new MojoExecution(plugin, LIFECYCLE[i][1], "default-" + LIFECYCLE[i][1]);
+			executions[i].setLifecyclePhase(LIFECYCLE[i][2]);
+		}
+		session = new MavenSession(null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult(), projects);
+	}
+
+	/**
+	 * @return settings independent of environment, with timings of a previous build of this reactor kept in a
+	 *         temporary file, so that progress is estimated
+	 */
+	public Config config() throws IOException {
+		Path timings = Files.createTempFile("maven-pretty-benchmark", ".bin");
+		timings.toFile().deleteOnExit();
+		Map<String, Long> durations = new HashMap<>();
+		for (MavenProject project : projects) {
+			durations.put(project.getGroupId() + ":" + project.getArtifactId(), TimeUnit.SECONDS.toNanos(30));
+		}
+		TimingStore.open(timings).save(durations);
+		return new Config(true, 20, 10, 10, timings, null, null, -1);
+	}
+
+	public int size() {
+		return projects.size();
+	}
+
+	public List<MavenProject> getProjects() {
+		return projects;
+	}
+
+	public int steps() {
+		return executions.length;
+	}
+
+	public MojoExecution execution(int step) {
+		return executions[step];
+	}
+
+	public ExecutionEvent sessionStarted() {
+		return new Event(Type.SessionStarted, session, null, null);
+	}
+
+	public ExecutionEvent project(Type type, int project) {
+		return new Event(type, session, projects.get(project), null);
+	}
+
+	public ExecutionEvent mojo(Type type, int project, int step) {
+		return new Event(type, session, projects.get(project), executions[step]);
+	}
+
+	private static class Event implements ExecutionEvent {
+		private final Type type;
+		private final MavenSession session;
+		private final MavenProject project;
+		private final MojoExecution execution;
+
+		Event(Type type, MavenSession session, MavenProject project, MojoExecution execution) {
+			this.type = type;
+			this.session = session;
+			this.project = project;
+			this.execution = execution;
+		}
+
+		@Override
+		public Type getType() {
+			return type;
+		}
+
+		@Override
+		public MavenSession getSession() {
+			return session;
+		}
+
+		@Override
+		public MavenProject getProject() {
+			return project;
+		}
+
+		@Override
+		public MojoExecution getMojoExecution() {
+			return execution;
+		}
+
+		@Override
+		public Exception getException() {
+			return null;
+		}
+	}
+}
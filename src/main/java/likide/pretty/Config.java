@@ -0,0 +1,126 @@
+package likide.pretty;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Extension settings, read from environment.
+ */
+public class Config {
+
+	public static final String ENABLED = "PRETTY";
+	public static final String MAX_FPS = "PRETTY_MAX_FPS";
+	public static final String SUMMARY_INTERVAL = "PRETTY_SUMMARY_INTERVAL";
+	public static final String FAILURE_LINES = "PRETTY_FAILURE_LINES";
+	public static final String TIMINGS = "PRETTY_TIMINGS";
+	public static final String METRICS_FILE = "PRETTY_METRICS_FILE";
+	public static final String RECORD_FILE = "PRETTY_RECORD";
+	public static final String STATUS_PORT = "PRETTY_STATUS_PORT";
+
+	private final boolean enabled;
+	private final int maxFps;
+	private final int summaryInterval;
+	private final int failureLines;
+	private final Path timings;
+	private final Path metricsFile;
+	private final Path recordFile;
+	private final int statusPort;
+
+	public Config(boolean enabled, int maxFps, int summaryInterval, int failureLines, Path timings, Path metricsFile, Path recordFile, int statusPort) {
+		this.enabled = enabled;
+		this.maxFps = maxFps;
+		this.summaryInterval = summaryInterval;
+		this.failureLines = failureLines;
+		this.timings = timings;
+		this.metricsFile = metricsFile;
+		this.recordFile = recordFile;
+		this.statusPort = statusPort;
+	}
+
+	public static Config fromEnvironment(Map<String, String> environment) {
+		return new Config(
+				Boolean.toString(true).equals(environment.get(ENABLED)),
+				positiveInt(environment, MAX_FPS, 20),
+				positiveInt(environment, SUMMARY_INTERVAL, 10),
+				positiveInt(environment, FAILURE_LINES, 10),
+				environment.containsKey(TIMINGS) ? Paths.get(environment.get(TIMINGS)) : Paths.get(System.getProperty("user.home"), ".m2", "maven-pretty", "timings.bin"),
+				environment.containsKey(METRICS_FILE) ? Paths.get(environment.get(METRICS_FILE)) : null,
+				environment.containsKey(RECORD_FILE) ? Paths.get(environment.get(RECORD_FILE)) : null,
+				port(environment, STATUS_PORT));
+	}
+
+	private static int positiveInt(Map<String, String> environment, String name, int defaultValue) {
+		try {
+			int value = Integer.parseInt(environment.getOrDefault(name, Integer.toString(defaultValue)).trim());
+			return value > 0 ? value : defaultValue;
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	private static int port(Map<String, String> environment, String name) {
+		try {
+			int value = Integer.parseInt(environment.getOrDefault(name, "-1").trim());
+			return value >= 0 && value <= 65535 ? value : -1;
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * @return true if pretty output is enabled (<code>PRETTY=true</code>)
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return maximum frame count per second
+	 */
+	public int getMaxFps() {
+		return maxFps;
+	}
+
+	/**
+	 * @return seconds between two summary lines in non-interactive output
+	 */
+	public int getSummaryInterval() {
+		return summaryInterval;
+	}
+
+	/**
+	 * @return output lines shown under a failed project
+	 */
+	public int getFailureLines() {
+		return failureLines;
+	}
+
+	/**
+	 * @return timing history file of previous builds
+	 */
+	public Path getTimings() {
+		return timings;
+	}
+
+	/**
+	 * @return OpenMetrics file written at session end, or null
+	 */
+	public Path getMetricsFile() {
+		return metricsFile;
+	}
+
+	/**
+	 * @return event log file recorded for replay, or null
+	 */
+	public Path getRecordFile() {
+		return recordFile;
+	}
+
+	/**
+	 * @return loopback port where build status is published, 0 for any free port, -1 if not published
+	 */
+	public int getStatusPort() {
+		return statusPort;
+	}
+}
@@ -7,6 +7,10 @@ public class Constants {
 	public static final Pattern ESCAPE_PATTERN = Pattern.compile("\033\\[[^m]*m");
 	public static final String TERM_LINE_UP = "%dA";
 	public static final String TERM_LINE_BACK = "2K";
+	public static final String TERM_CURSOR_UP = "A";
+	public static final String TERM_CURSOR_DOWN = "B";
+	public static final String TERM_CLEAR_LINE_END = "K";
+	public static final String TERM_CLEAR_SCREEN_END = "J";
 	public static final String TERM_ESCAPE = "\033[";
 	public static final String TERM_RESET = "\033[0m";
 	public static final String TERM_BOLD = "1m";
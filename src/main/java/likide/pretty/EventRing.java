@@ -0,0 +1,112 @@
+package likide.pretty;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.plugin.MojoExecution;
+
+/**
+ * Bounded multi-producer / single-consumer ring of build events. Slots are preallocated; producers claim a slot with
+ * a CAS and never take a lock. Only one thread may call {@link #drain(Handler)}.
+ */
+public class EventRing {
+
+	@FunctionalInterface
+	public interface Handler {
+		void onEvent(Type type, int project, MojoExecution execution, long time, long thread);
+	}
+
+	private final int mask;
+	// slot sequence: equals claim position when free, position + 1 when published
+	private final AtomicLongArray sequences;
+	private final Type[] types;
+	private final int[] projects;
+	private final MojoExecution[] executions;
+	private final long[] times;
+	private final long[] threads;
+	private final AtomicLong tail = new AtomicLong();
+	private long head = 0;
+
+	public EventRing(int capacity) {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException(String.format("Capacity %d is not a power of 2", capacity));
+		}
+		mask = capacity - 1;
+		sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+		types = new Type[capacity];
+		projects = new int[capacity];
+		executions = new MojoExecution[capacity];
+		times = new long[capacity];
+		threads = new long[capacity];
+	}
+
+	/**
+	 * @param thread id of the thread that produced the event
+	 * @return false if the ring is full
+	 */
+	public boolean offer(Type type, int project, MojoExecution execution, long time, long thread) {
+		long position;
+		while (true) {
+			position = tail.get();
+			long available = sequences.get((int) position & mask) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+			} else if (available < 0) {
+				return false;
+			}
+		}
+		int index = (int) position & mask;
+		types[index] = type;
+		projects[index] = project;
+		executions[index] = execution;
+		times[index] = time;
+		threads[index] = thread;
+		sequences.set(index, position + 1);
+		return true;
+	}
+
+	/**
+	 * Consume all published events.
+	 *
+	 * @return consumed event count
+	 */
+	public int drain(Handler handler) {
+		int count = 0;
+		while (true) {
+			int index = (int) head & mask;
+			if (sequences.get(index) != head + 1) {
+				return count;
+			}
+			Type type = types[index];
+			int project = projects[index];
+			MojoExecution execution = executions[index];
+			long time = times[index];
+			long thread = threads[index];
+			executions[index] = null;
+			sequences.set(index, head + mask + 1);
+			head++;
+			count++;
+			handler.onEvent(type, project, execution, time, thread);
+		}
+	}
+
+	/**
+	 * @return true if no event is published; consumer thread only
+	 */
+	public boolean isEmpty() {
+		return sequences.get((int) head & mask) != head + 1;
+	}
+
+	/**
+	 * @return pending event count, exact only from the consumer thread
+	 */
+	public int size() {
+		return (int) (tail.get() - head);
+	}
+}
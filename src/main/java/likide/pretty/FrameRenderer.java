@@ -0,0 +1,166 @@
+package likide.pretty;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders frames made of finished lines (printed once, scrolled above the live area) and live lines (rewritten on
+ * each frame). The previous live area is kept so that only changed lines are rewritten; the whole frame is encoded in a
+ * reused direct buffer and sent to output with a single channel write.
+ */
+public class FrameRenderer implements Renderer {
+
+	private final PrintStream output;
+	private final WritableByteChannel channel;
+	private final CharsetEncoder encoder;
+	private final StringBuilder frame = new StringBuilder(4096);
+	private CharBuffer chars = CharBuffer.allocate(4096);
+	private ByteBuffer bytes = ByteBuffer.allocateDirect(16384);
+	private List<String> previousLines = new ArrayList<>();
+	private int previousWidth = -1;
+	private long frameCount = 0;
+	private long bytesWritten = 0;
+	private int lastFrameBytes = 0;
+
+	public FrameRenderer(PrintStream output, Charset charset) {
+		this(output, Channels.newChannel(output), charset);
+	}
+
+	/**
+	 * @param output stream flushed before each frame, so that its pending output is written first
+	 * @param channel channel to the same destination as <code>output</code>, frames are written to
+	 */
+	public FrameRenderer(PrintStream output, WritableByteChannel channel, Charset charset) {
+		this.output = output;
+		this.channel = channel;
+		this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Write a frame. Lines must already fit in <code>width</code>.
+	 *
+	 * @return bytes written for this frame
+	 */
+	@Override
+	public int render(List<String> finished, List<String> live, int width) {
+		frame.setLength(0);
+		// a width change may wrap previous lines; rewrite everything
+		boolean full = width != previousWidth;
+		boolean changed = !finished.isEmpty() || live.size() != previousLines.size();
+		if (!previousLines.isEmpty()) {
+			moveCursor(Constants.TERM_CURSOR_UP, previousLines.size());
+		}
+		// screen rows are compared with the rows written by the previous frame; finished lines shift the live area down
+		int row = 0;
+		int skipped = 0;
+		for (String line : finished) {
+			skipped = renderLine(line, row++, full, skipped);
+		}
+		for (String line : live) {
+			int before = frame.length();
+			skipped = renderLine(line, row++, full, skipped);
+			changed |= frame.length() != before;
+		}
+		moveCursor(Constants.TERM_CURSOR_DOWN, skipped);
+		if (row < previousLines.size()) {
+			frame.append(Constants.TERM_ESCAPE + Constants.TERM_CLEAR_SCREEN_END);
+		}
+		previousLines = new ArrayList<>(live);
+		previousWidth = width;
+		if (!changed && !full) {
+			return 0;
+		}
+		int length = encode();
+		output.flush();
+		try {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		} catch (IOException e) {
+			// as with PrintStream, output errors are not reported
+		}
+		// frame is buffered when written through output; no-op otherwise
+		output.flush();
+		frameCount++;
+		bytesWritten += length;
+		lastFrameBytes = length;
+		return length;
+	}
+
+	/**
+	 * Encode frame in the byte buffer, growing buffers as needed.
+	 *
+	 * @return encoded length
+	 */
+	private int encode() {
+		int length = frame.length();
+		if (chars.capacity() < length) {
+			chars = CharBuffer.allocate(Math.max(length, chars.capacity() * 2));
+		}
+		chars.clear();
+		frame.getChars(0, length, chars.array(), 0);
+		chars.limit(length);
+		while (true) {
+			bytes.clear();
+			encoder.reset();
+			CoderResult result = encoder.encode(chars, bytes, true);
+			if (!result.isOverflow()) {
+				result = encoder.flush(bytes);
+			}
+			if (!result.isOverflow()) {
+				break;
+			}
+			bytes = ByteBuffer.allocateDirect(bytes.capacity() * 2);
+			chars.rewind();
+		}
+		bytes.flip();
+		return bytes.remaining();
+	}
+
+	private int renderLine(String line, int row, boolean full, int skipped) {
+		if (!full && row < previousLines.size() && previousLines.get(row).equals(line)) {
+			return skipped + 1;
+		}
+		moveCursor(Constants.TERM_CURSOR_DOWN, skipped);
+		frame.append(line);
+		frame.append(Constants.TERM_ESCAPE + Constants.TERM_CLEAR_LINE_END);
+		frame.append('\n');
+		return 0;
+	}
+
+	private void moveCursor(String move, int count) {
+		// terminals treat a 0 count as 1; emit nothing instead
+		if (count > 0) {
+			frame.append(Constants.TERM_ESCAPE).append(count).append(move);
+		}
+	}
+
+	@Override
+	public boolean isInteractive() {
+		return true;
+	}
+
+	@Override
+	public long getFrameCount() {
+		return frameCount;
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	public int getLastFrameBytes() {
+		return lastFrameBytes;
+	}
+}
@@ -0,0 +1,99 @@
+package likide.pretty;
+
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only rendering for non-interactive output (CI logs, pipes): one line per finished project and a periodic
+ * summary, without cursor control.
+ */
+public class LineRenderer implements Renderer {
+
+	private final PrintStream output;
+	private final Charset charset;
+	private final boolean color;
+	private final long summaryIntervalNanos;
+	private final StringBuilder frame = new StringBuilder(1024);
+	private String lastSummary = null;
+	private String printedSummary = null;
+	private long lastSummaryTime;
+	private long frameCount = 0;
+	private long bytesWritten = 0;
+
+	public LineRenderer(PrintStream output, Charset charset, boolean color, long summaryInterval, TimeUnit unit) {
+		this.output = output;
+		this.charset = charset;
+		this.color = color;
+		this.summaryIntervalNanos = unit.toNanos(summaryInterval);
+		this.lastSummaryTime = System.nanoTime();
+	}
+
+	@Override
+	public int render(List<String> finished, List<String> live, int width) {
+		frame.setLength(0);
+		for (String line : finished) {
+			appendLine(line);
+		}
+		if (!live.isEmpty()) {
+			lastSummary = live.get(live.size() - 1);
+		}
+		long now = System.nanoTime();
+		if (now - lastSummaryTime >= summaryIntervalNanos) {
+			appendSummary();
+			lastSummaryTime = now;
+		}
+		return write();
+	}
+
+	@Override
+	public void close() {
+		frame.setLength(0);
+		appendSummary();
+		write();
+	}
+
+	private void appendSummary() {
+		if (lastSummary != null && !lastSummary.equals(printedSummary)) {
+			appendLine(lastSummary);
+			printedSummary = lastSummary;
+		}
+	}
+
+	private void appendLine(String line) {
+		if (color) {
+			frame.append(line);
+		} else {
+			TermString.strip(line, frame);
+		}
+		frame.append('\n');
+	}
+
+	private int write() {
+		if (frame.length() == 0) {
+			return 0;
+		}
+		byte[] bytes = frame.toString().getBytes(charset);
+		output.write(bytes, 0, bytes.length);
+		output.flush();
+		frameCount++;
+		bytesWritten += bytes.length;
+		return bytes.length;
+	}
+
+	@Override
+	public boolean isInteractive() {
+		return false;
+	}
+
+	@Override
+	public long getFrameCount() {
+		return frameCount;
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+}
@@ -1,21 +1,32 @@
 package likide.pretty;
 
-import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
-import java.util.ArrayDeque;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 import javax.inject.Named;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.maven.eventspy.AbstractEventSpy;
 import org.apache.maven.eventspy.EventSpy;
@@ -29,70 +40,157 @@ import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.logging.LoggerManager;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
+import org.jline.terminal.impl.DumbTerminal;
 
+import likide.pretty.capture.OutputCapture;
+import likide.pretty.capture.TestProgress;
+import likide.pretty.metrics.SpyMetrics;
 import likide.pretty.model.ProjectStatus;
+import likide.pretty.model.ReactorState;
 import likide.pretty.model.ProjectStep;
 import likide.pretty.model.Status;
+import likide.pretty.replay.EventRecorder;
+import likide.pretty.status.StatusPublisher;
+import likide.pretty.timing.ProgressEstimate;
+import likide.pretty.timing.TimingRecorder;
+import likide.pretty.timing.TimingReport;
+import likide.pretty.timing.TimingStore;
+import likide.pretty.timing.Utilization;
+import likide.pretty.transfer.TransferStats;
+import likide.pretty.transfer.TransferStats.Snapshot;
 
 @Named("maven-pretty")
 @Component(role = EventSpy.class, hint = "output", description = "Pretty output for maven build.")
 public class PrettyEventSpy extends AbstractEventSpy {
 
+	// clock unit used by status spinner
+	private static final long CLOCK_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+	private static final long SPINNER_STEP_NANOS = 10 * CLOCK_TICK_NANOS;
+	// a failed project is shown without waiting longer for its output
+	private static final long FAILURE_OUTPUT_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
 	@Requirement
 	private LoggerManager loggerManager;
 
+	private static final ReactorState NO_SESSION = new ReactorState(List.of());
+
+	// output thread and terminal are shared by all sessions of the JVM (embedded maven, daemon)
 	private AtomicReference<Thread> outputThread = new AtomicReference<>();
+	// current session ended, reset by output thread once reported
 	private AtomicBoolean terminated = new AtomicBoolean(false);
-	private Map<MavenProject, Deque<ProjectStatus>> queues = new ConcurrentHashMap<>();
-	private Map<MavenProject, ProjectStatus> lastStatuses = new ConcurrentHashMap<>();
-	private int lastLoopLength = 0;
-	private PrintStream output = System.out;
-	private File mavenOutputFile = null;
+	private Semaphore sessionReported = new Semaphore(0);
+	private EventRing events = new EventRing(8192);
+	// output thread is parked waiting for events
+	private volatile boolean waiting = false;
+	private Config config = Config.fromEnvironment(System.getenv());
+	// project ids lookup for event threads
+	private volatile ReactorState sessionState = NO_SESSION;
+	// output thread only
+	private ReactorState state = sessionState;
+	private TimingRecorder recorder = new TimingRecorder(0);
+	private TimingStore timingStore = null;
+	private ProgressEstimate estimate = null;
+	private Utilization utilization = new Utilization(1);
+	private volatile TransferStats transfers = new TransferStats();
+	private SpyMetrics metrics = new SpyMetrics();
+	private EventRecorder eventRecorder = null;
+	private StatusPublisher statusPublisher = null;
+	// a status client is connected during current frame
+	private boolean publishing = false;
+	private TestProgress testProgress = null;
+	// transfers received from a published build, instead of local ones
+	private Snapshot remoteTransfers = null;
+	private List<Integer> finishedProjects = new ArrayList<>();
+	// failed projects shown once their output is written
+	private List<PendingFailure> pendingFailures = new ArrayList<>();
+	private StringBuilder line = new StringBuilder(256);
+	private StringBuilder summary = new StringBuilder(256);
+	private volatile PrintStream output = System.out;
+	// streams replaced by output capture during a session
+	private PrintStream systemOut = null;
+	private PrintStream systemErr = null;
+	private Renderer renderer;
+	private volatile OutputCapture outputCapture = null;
 	private Terminal terminal;
+	// System.out if it writes to the console, else null
+	private PrintStream stdout = null;
+	// standard output of the console, frames written to stdout bypass it through this channel; never closed
+	private WritableByteChannel stdoutChannel = null;
+	private volatile boolean enabled = false;
+	private boolean captureOutput = true;
+	// event time source for progress and utilization; recorded time on replay
+	private LongSupplier timeSource = System::nanoTime;
+
+	public PrettyEventSpy() {
+	}
+
+	/**
+	 * Render sessions of this JVM as the extension does, with <code>config</code> instead of environment settings.
+	 */
+	public PrettyEventSpy(Config config) {
+		this.config = config;
+	}
+
+	/**
+	 * Render on <code>terminal</code> without output thread nor maven output capture. Frames are rendered by
+	 * {@link #printFrame(int)} calls from a single thread.
+	 */
+	public static PrettyEventSpy forTerminal(Terminal terminal, PrintStream output, Config config) {
+		return new PrettyEventSpy(terminal, output, config, System::nanoTime);
+	}
+
+	PrettyEventSpy(Terminal terminal, PrintStream output, Config config, LongSupplier timeSource) {
+		this.config = config;
+		this.timeSource = timeSource;
+		this.terminal = terminal;
+		this.output = output;
+		this.renderer = new FrameRenderer(output, terminal.encoding());
+		this.captureOutput = false;
+		this.enabled = true;
+	}
 
 	@Override
-	public synchronized void onEvent(Object event) throws Exception {
+	public void onEvent(Object event) throws Exception {
 		try {
-			if (outputThread.get() == null && Boolean.toString(true).equals(System.getenv().getOrDefault("PRETTY", "false"))) {
-				terminal = TerminalBuilder.terminal();
-				outputThread.set(new Thread(this::output));
-				outputThread.get().setDaemon(true);
-				outputThread.get().start();
+			if (!enabled && config.isEnabled()) {
+				startOutput();
 			}
 			if (event instanceof DefaultMavenExecutionRequest) {
-				((DefaultMavenExecutionRequest) event).setTransferListener(new PrettyTransferListener());
+				// one request per session
+				transfers = new TransferStats();
+				((DefaultMavenExecutionRequest) event).setTransferListener(new PrettyTransferListener(transfers));
 			}
 			if (event instanceof ExecutionEvent) {
 				ExecutionEvent executionEvent = (ExecutionEvent) event;
+				metrics.event(executionEvent.getType());
+				if (captureOutput && Type.SessionStarted.equals(executionEvent.getType())) {
+					// render on the stdout of this session
+					output = System.out;
+					List<String> names = executionEvent.getSession().getProjects().stream().map(MavenProject::getArtifactId).collect(Collectors.toList());
+					outputCapture = new OutputCapture(Files.createTempDirectory("maven-"), names, metrics.getCaptureWrite(), output);
+				}
 				if (Type.SessionStarted.equals(executionEvent.getType())) {
-					for (MavenProject project : executionEvent.getSession().getProjects()) {
-						queues.computeIfAbsent(project, (i) -> new ArrayDeque<>(10)).offer(planned(project));
+					// published to output thread by ring offer
+					sessionState = new ReactorState(executionEvent.getSession().getProjects(), executionEvent.getSession().getProjectDependencyGraph(),
+							executionEvent.getSession().getRequest().getDegreeOfConcurrency());
+					offer(Type.SessionStarted, -1, null);
+				} else if (executionEvent.getProject() != null && !Type.SessionEnded.equals(executionEvent.getType())) {
+					// parallel builds end session with top level project
+					int id = sessionState.id(executionEvent.getProject());
+					if (id != -1) {
+						attribute(executionEvent.getType(), id);
+						offer(executionEvent.getType(), id, executionEvent.getMojoExecution());
 					}
 				}
-				MavenProject project = executionEvent.getProject();
-				if (project != null) {
-					if (Type.ProjectSucceeded.equals(executionEvent.getType())) {
-						queues.computeIfAbsent(project, (i) -> new ArrayDeque<>(10)).offer(built(project));
-					} else if (Type.ProjectFailed.equals(executionEvent.getType())) {
-						queues.computeIfAbsent(project, (i) -> new ArrayDeque<>(10)).offer(failed(project));
-					} else if (Type.ProjectSkipped.equals(executionEvent.getType())) {
-						queues.computeIfAbsent(project, (i) -> new ArrayDeque<>(10)).offer(skipped(project));
-					} else if (executionEvent.getMojoExecution() != null) {
-						queues.computeIfAbsent(project, (i) -> new ArrayDeque<>(10)).offer(execution(project, executionEvent.getMojoExecution(), executionEvent.getType()));
-					} else {
-						queues.computeIfAbsent(project, (i) -> new ArrayDeque<>(10)).offer(started(project));
-					}
-				}
-				if (Type.SessionStarted.equals(executionEvent.getType())) {
-					mavenOutputFile = File.createTempFile("maven-", ".log");
-					PrintStream filePrintStream = new PrintStream(mavenOutputFile);
-					System.setOut(filePrintStream);
-					System.setErr(filePrintStream);
+				if (outputCapture != null && Type.SessionStarted.equals(executionEvent.getType())) {
+					PrintStream capturePrintStream = new PrintStream(outputCapture);
+					systemOut = System.out;
+					systemErr = System.err;
+					System.setOut(capturePrintStream);
+					System.setErr(capturePrintStream);
 				}
 				if (Type.SessionEnded.equals(executionEvent.getType())) {
-					// wait for output termination
-					terminated.set(true);
-					outputThread.get().join();
+					endSession();
 				}
 			}
 		} catch (RuntimeException e) {
@@ -100,162 +198,582 @@ public class PrettyEventSpy extends AbstractEventSpy {
 		}
 	}
 
-	private ProjectStatus started(MavenProject mavenProject) {
-		return new ProjectStatus(mavenProject, Status.PLANNED, null, null);
+	/**
+	 * Restore standard streams, wait for the session report and release session data. Output thread and terminal
+	 * are kept for next session.
+	 */
+	private void endSession() throws IOException, InterruptedException {
+		if (systemOut != null) {
+			System.setOut(systemOut);
+			System.setErr(systemErr);
+			systemOut = null;
+			systemErr = null;
+		}
+		if (outputCapture != null) {
+			outputCapture.close();
+		}
+		Thread thread = outputThread.get();
+		if (thread != null) {
+			terminated.set(true);
+			LockSupport.unpark(thread);
+			while (!sessionReported.tryAcquire(100, TimeUnit.MILLISECONDS) && thread.isAlive()) {
+				// output thread is reporting
+			}
+		}
+		// reported: output thread does not use them anymore
+		outputCapture = null;
+		sessionState = NO_SESSION;
 	}
 
-	private ProjectStatus planned(MavenProject mavenProject) {
-		return new ProjectStatus(mavenProject, Status.PLANNED, null, null);
+	/**
+	 * Start output thread. The terminal is initialized by the output thread, events received meanwhile are buffered
+	 * in the ring.
+	 */
+	private void startOutput() {
+		Thread thread = new Thread(this::output, "maven-pretty-output");
+		if (outputThread.compareAndSet(null, thread)) {
+			// before output capture replaces it; kept by initTerminal if it writes to the console
+			stdout = System.out;
+			registerMetrics();
+			openStatusPublisher();
+			thread.setDaemon(true);
+			enabled = true;
+			thread.start();
+		}
 	}
 
-	private ProjectStatus execution(MavenProject mavenProject, MojoExecution mojoExecution, Type type) {
-		return new ProjectStatus(mavenProject, Status.BUILDING, new ProjectStep(mojoExecution, type), null);
+	/**
+	 * Create terminal; output thread only. Without console, the system terminal is not probed, so that
+	 * no native library is loaded.
+	 */
+	private void initTerminal() {
+		long initStart = System.nanoTime();
+		try {
+			if (System.console() != null) {
+				terminal = TerminalBuilder.terminal();
+				if (isLogFile()) {
+					stdout = null;
+				} else {
+					// on Windows, System.out may translate escape sequences for the console
+					if (!System.getProperty("os.name").startsWith("Windows")) {
+						stdoutChannel = new FileOutputStream(FileDescriptor.out).getChannel();
+					}
+				}
+			} else {
+				stdout = null;
+				terminal = dumbTerminal();
+			}
+		} catch (IOException | RuntimeException e) {
+			stdout = null;
+			terminal = dumbTerminal();
+		}
+		metrics.terminalInitialized(System.nanoTime() - initStart);
 	}
 
-	private ProjectStatus built(MavenProject mavenProject) {
-		return new ProjectStatus(mavenProject, Status.SUCCESS, null, null);
+	/**
+	 * @return true if maven redirects System.out to a log file (<code>-l</code>), or if it cannot be told
+	 */
+	private static boolean isLogFile() {
+		Optional<String[]> arguments = ProcessHandle.current().info().arguments();
+		if (arguments.isEmpty()) {
+			return true;
+		}
+		for (String argument : arguments.get()) {
+			if ("-l".equals(argument) || "--log-file".equals(argument) || argument.startsWith("--log-file=")) {
+				return true;
+			}
+		}
+		return false;
 	}
 
-	private ProjectStatus failed(MavenProject mavenProject) {
-		return new ProjectStatus(mavenProject, Status.FAILED, null, null);
+	private Renderer newRenderer() {
+		boolean dumb = Terminal.TYPE_DUMB.equals(terminal.getType()) || Terminal.TYPE_DUMB_COLOR.equals(terminal.getType());
+		if (dumb || output != stdout) {
+			// not a tty, or session output redirected from it: no cursor control, keep logs small
+			return new LineRenderer(output, terminal.encoding(), Terminal.TYPE_DUMB_COLOR.equals(terminal.getType()), config.getSummaryInterval(), TimeUnit.SECONDS);
+		} else if (stdoutChannel != null) {
+			return new FrameRenderer(output, stdoutChannel, terminal.encoding());
+		} else {
+			return new FrameRenderer(output, terminal.encoding());
+		}
 	}
 
-	private ProjectStatus skipped(MavenProject mavenProject) {
-		return new ProjectStatus(mavenProject, Status.SKIPPED, null, null);
+	private Terminal dumbTerminal() {
+		try {
+			return new DumbTerminal("maven-pretty", Terminal.TYPE_DUMB, InputStream.nullInputStream(), output, Charset.defaultCharset());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
-	public void output() {
+	private void openStatusPublisher() {
+		if (config.getStatusPort() < 0) {
+			return;
+		}
 		try {
-			int clock = 0;
-			boolean empty = false;
-			while (!terminated.get() || !empty) {
-				clock++;
-				clock = clock%10000;
-				empty = printFrame(clock);
-				Thread.sleep(TimeUnit.MILLISECONDS.toMillis(50));
+			statusPublisher = StatusPublisher.open(config.getStatusPort());
+			output.println(String.format("Build status published on %s:%d", statusPublisher.getAddress().getHostString(), statusPublisher.getAddress().getPort()));
+		} catch (IOException e) {
+			output.println(String.format("Build status not published: %s", e.getMessage()));
+		}
+	}
+
+	private void registerMetrics() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("likide.pretty:type=PrettyEventSpy");
+			// replace metrics of a previous extension instance in the same JVM
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
 			}
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
+			server.registerMBean(metrics, name);
+		} catch (JMException e) {
+			// metrics are optional
 		}
-		output.println(String.format("Maven output available in %s", mavenOutputFile));
 	}
 
-	private boolean printFrame(int clock) {
-		// TODO: limit display when there is more projects than terminal line count
-		// Print one line with skipped projects (N projects skipped)
-		boolean empty = true;
-		List<String> building = new ArrayList<>();
-		List<String> finished = new ArrayList<>();
-		int nbFailed = 0;
-		int nbSuccess = 0;
-		int nbPlanned = 0;
-		int nbSkipped = 0;
-		int width = terminal.getWidth();
-		for (Entry<MavenProject, Deque<ProjectStatus>> entry : queues.entrySet()) {
-			StringBuilder sb = new StringBuilder();
-			ProjectStatus lastStatus = lastStatuses.get(entry.getKey());
-			ProjectStatus currentStatus = entry.getValue().poll();
-			ProjectStatus effectiveStatus;
-			if (currentStatus != null) {
-				empty = false;
-				effectiveStatus = new ProjectStatus(currentStatus, lastStatus);
-				lastStatuses.put(entry.getKey(), effectiveStatus);
+	/**
+	 * Attribute maven output of builder thread to the project it builds.
+	 */
+	private void attribute(Type type, int project) {
+		if (outputCapture == null) {
+			return;
+		}
+		if (Type.MojoStarted.equals(type)) {
+			outputCapture.attach(project);
+		} else if (Type.MojoSucceeded.equals(type) || Type.MojoFailed.equals(type)) {
+			outputCapture.release();
+		} else if (Type.ProjectSucceeded.equals(type) || Type.ProjectFailed.equals(type) || Type.ProjectSkipped.equals(type)) {
+			outputCapture.attach(-1);
+		}
+	}
+
+	/**
+	 * Apply a recorded event, for replay without output thread; <code>session</code> is the state of the recorded
+	 * session. Frames are rendered if the ring is full.
+	 */
+	void replay(ReactorState session, Type type, int project, MojoExecution execution, long time, long thread, int clock) {
+		if (Type.SessionStarted.equals(type)) {
+			sessionState = session;
+		}
+		while (!events.offer(type, project, execution, time, thread)) {
+			printFrame(clock);
+		}
+	}
+
+	private void offer(Type type, int project, MojoExecution execution) {
+		if (!enabled) {
+			return;
+		}
+		// ring is full only if output thread is far behind; wait for it, but never if it is gone
+		while (!events.offer(type, project, execution, System.nanoTime(), Thread.currentThread().getId())) {
+			Thread thread = outputThread.get();
+			if (thread != null && !thread.isAlive()) {
+				return;
+			}
+			Thread.yield();
+		}
+		if (waiting) {
+			LockSupport.unpark(outputThread.get());
+		}
+	}
+
+	private void apply(Type type, int project, MojoExecution execution, long time, long thread) {
+		if (Type.SessionStarted.equals(type)) {
+			state = sessionState;
+			recorder = new TimingRecorder(state.size());
+			timingStore = TimingStore.open(config.getTimings());
+			estimate = new ProgressEstimate(state, timingStore, time);
+			utilization = new Utilization(state.getThreads());
+			utilization.update(0, time);
+			OutputCapture capture = outputCapture;
+			if (capture != null) {
+				testProgress = capture.getTestProgress();
+			}
+			record(type, project, execution, time, thread);
+			if (statusPublisher != null) {
+				statusPublisher.session(state, time);
+			}
+			return;
+		}
+		recorder.record(type, project, execution, time, thread);
+		if (Type.ProjectStarted.equals(type) || execution != null) {
+			// a status client connected during the build receives no start of building projects
+			state.started(project);
+		}
+		if (Type.ProjectStarted.equals(type) || Type.MojoStarted.equals(type)) {
+			estimate.started(project, recorder.projectStart(project));
+		}
+		record(type, project, execution, time, thread);
+		if (publishing) {
+			statusPublisher.event(type, project, execution, time, thread);
+		}
+		ProjectStatus status;
+		if (Type.ProjectSucceeded.equals(type)) {
+			status = state.update(project, Status.SUCCESS, null);
+		} else if (Type.ProjectFailed.equals(type)) {
+			status = state.update(project, Status.FAILED, null);
+		} else if (Type.ProjectSkipped.equals(type)) {
+			status = state.update(project, Status.SKIPPED, null);
+		} else if (execution != null) {
+			ProjectStep current = state.project(project).getCurrentStep();
+			if (Type.MojoStarted.equals(type)) {
+				status = state.update(project, Status.BUILDING, new ProjectStep(execution, type, time, -1));
 			} else {
-				effectiveStatus = lastStatus;
+				long startTime = current != null && Type.MojoStarted.equals(current.getStatus()) ? current.getStartTime() : time;
+				status = state.update(project, Status.BUILDING, new ProjectStep(execution, type, startTime, time));
 			}
-			sb.append(effectiveStatus.toString(clock));
-			if (effectiveStatus.getStatus().isFinished()) {
-				if (currentStatus != null) {
-					finished.add(sb.toString());
-				}
-				if (Status.SUCCESS.equals(effectiveStatus.getStatus())) {
-					nbSuccess++;
-				} else if (Status.SKIPPED.equals(effectiveStatus.getStatus())) {
-					nbSkipped++;
-				} else if (Status.FAILED.equals(effectiveStatus.getStatus())) {
-					nbFailed++;
-				}
-			} else if (Status.PLANNED.equals(effectiveStatus.getStatus())) {
-				nbPlanned++;
+		} else {
+			status = state.update(project, Status.PLANNED, null);
+		}
+		utilization.update(state.busy(), time);
+		if (status.getStatus().isFinished()) {
+			finishedProjects.add(project);
+			estimate.finished(project);
+		}
+	}
+
+	/**
+	 * Append event to the event log, if recording.
+	 */
+	private void record(Type type, int project, MojoExecution execution, long time, long thread) {
+		try {
+			if (Type.SessionStarted.equals(type) && config.getRecordFile() != null && eventRecorder == null) {
+				eventRecorder = new EventRecorder(config.getRecordFile());
+			}
+			if (eventRecorder == null) {
+				return;
+			}
+			if (Type.SessionStarted.equals(type)) {
+				eventRecorder.session(state, time);
 			} else {
-				building.add(sb.toString());
+				eventRecorder.event(type, project, execution, time, thread);
 			}
+		} catch (IOException e) {
+			// stop recording
+			closeEventRecorder();
 		}
-		for (int i = 0; i < lastLoopLength; i++) {
-			output.print(String.format(Constants.TERM_ESCAPE + Constants.TERM_LINE_UP, 1));
-			output.print(Constants.TERM_ESCAPE + Constants.TERM_LINE_BACK);
+	}
+
+	private void closeEventRecorder() {
+		if (eventRecorder != null) {
+			try {
+				eventRecorder.close();
+			} catch (IOException e) {
+				// recording is incomplete
+			}
+			eventRecorder = null;
 		}
-		for (String finishedItem : finished) {
-			printLine(output, finishedItem, width);
+	}
+
+	/**
+	 * Render sessions one after the other, for the life of the JVM.
+	 */
+	public void output() {
+		initTerminal();
+		while (!Thread.currentThread().isInterrupted()) {
+			awaitSession();
+			renderer = newRenderer();
+			renderSession();
+			releaseSession();
+			sessionReported.release();
 		}
-		int loopLength = 0;
-		for (String buildingItem : building) {
-			printLine(output, buildingItem, width);
-			loopLength++;
+	}
+
+	/**
+	 * Park until next session events.
+	 */
+	private void awaitSession() {
+		while (events.isEmpty() && !terminated.get() && !Thread.currentThread().isInterrupted()) {
+			waiting = true;
+			if (events.isEmpty() && !terminated.get()) {
+				LockSupport.park(this);
+			}
+			waiting = false;
 		}
-		printLine(output, String.format("Built " + Constants.TERM_ESCAPE + Constants.TERM_BOLD + "%5$d/%4$d" + Constants.TERM_RESET + " projects... Failed: %1$d - Success: %2$d - Planned: %3$d - Skipped: %4$s",
-				nbFailed, nbSuccess, nbPlanned, queues.size(), nbSuccess, nbSkipped), width);
-		loopLength++;
-		lastLoopLength = loopLength;
-		return empty;
 	}
 
-	private void printLine(PrintStream out, String value, int maxWidth) {
-		out.println(ellipsize(value, maxWidth, ">", 1));
+	/**
+	 * Render frames when events are received, at most {@link Config#getMaxFps()} times per second. Without events,
+	 * wake up only to step the spinner.
+	 */
+	private void renderSession() {
+		long start = System.nanoTime();
+		long frameNanos = TimeUnit.SECONDS.toNanos(1) / config.getMaxFps();
+		boolean last = false;
+		while (!last && !Thread.currentThread().isInterrupted()) {
+			// read before drain: events offered before termination are rendered in this last frame
+			last = terminated.get();
+			long frameStart = System.nanoTime();
+			printFrame((int) ((frameStart - start) / CLOCK_TICK_NANOS % 10000));
+			if (!last) {
+				// rate limit; events received meanwhile are coalesced in next frame
+				LockSupport.parkNanos(frameNanos - (System.nanoTime() - frameStart));
+				waiting = true;
+				// check after waiting is set, so that an event offered meanwhile is either seen or unparks
+				if (events.isEmpty() && !terminated.get()) {
+					LockSupport.parkNanos(SPINNER_STEP_NANOS - (System.nanoTime() - start) % SPINNER_STEP_NANOS);
+				}
+				waiting = false;
+			}
+		}
+		printSessionEnd();
 	}
 
-	public static String ellipsize(String value, int maxWidth) {
-		return ellipsize(value, maxWidth, "", 0);
+	/**
+	 * Drop per-session data once reported; output thread only.
+	 */
+	private void releaseSession() {
+		state = NO_SESSION;
+		recorder = new TimingRecorder(0);
+		timingStore = null;
+		estimate = null;
+		utilization = new Utilization(1);
+		testProgress = null;
+		finishedProjects.clear();
+		pendingFailures.clear();
+		terminated.set(false);
 	}
 
-	public static String ellipsize(String value, int maxWidth, String suffix, int suffixLength) {
-		boolean resetNeeded = false;
-		boolean suffixNeeded = false;
-		int realLength = 0;
-		int lastStop = 0;
-		StringBuilder ellipsized = new StringBuilder();
-		Matcher m = Constants.ESCAPE_PATTERN.matcher(value);
-		MatchResult[] matches = m.results().toArray(i -> new MatchResult[i]);
-		if (matches.length == 0) {
-			if (value.length() <= maxWidth) {
-				return value;
-			} else if (value.length() == maxWidth) {
-				return value.substring(0, maxWidth);
+	/**
+	 * Close rendering and print session reports.
+	 */
+	void printSessionEnd() {
+		renderer.close();
+		closeEventRecorder();
+		if (statusPublisher != null) {
+			statusPublisher.end();
+		}
+		if (state.size() > 0) {
+			printTimings();
+		}
+		if (transfers.getTransfers() > 0) {
+			for (String transferLine : transfers.summary()) {
+				output.println(transferLine);
+			}
+		}
+		if (config.getMetricsFile() != null) {
+			try {
+				metrics.writeOpenMetrics(config.getMetricsFile());
+			} catch (IOException e) {
+				output.println(String.format("Metrics not written: %s", e.getMessage()));
+			}
+		}
+		if (outputCapture != null) {
+			output.println(String.format("Maven output available in %s (per module logs in %s)", outputCapture.getCombinedFile(), outputCapture.getDirectory().resolve("modules")));
+		}
+		String stats = String.format("Rendered %d frames, %d bytes (%d bytes/frame), terminal ready in %d ms",
+				renderer.getFrameCount(), renderer.getBytesWritten(), renderer.getBytesWritten() / Math.max(1, renderer.getFrameCount()),
+				TimeUnit.NANOSECONDS.toMillis(metrics.getTerminalInitNanos()));
+		output.println(renderer.isInteractive() ? Constants.TERM_ESCAPE + Constants.TERM_GREY + stats + Constants.TERM_RESET : stats);
+	}
+
+	private void printTimings() {
+		TimingReport report = new TimingReport(recorder, state);
+		for (String timing : report.summary(5)) {
+			output.println(timing);
+		}
+		if (state.getThreads() > 1) {
+			utilization.update(0, timeSource.getAsLong());
+			for (String histogramLine : utilization.histogram()) {
+				output.println(histogramLine);
+			}
+		}
+		try {
+			timingStore.save(report.durations());
+		} catch (IOException e) {
+			output.println(String.format("Build timings not saved: %s", e.getMessage()));
+		}
+		if (outputCapture != null) {
+			Path trace = outputCapture.getDirectory().resolve("trace.json");
+			try {
+				report.writeTrace(trace);
+				output.println(String.format("Build trace available in %s (open with chrome://tracing or ui.perfetto.dev)", trace));
+			} catch (IOException e) {
+				output.println(String.format("Build trace not written: %s", e.getMessage()));
+			}
+		}
+	}
+
+	/**
+	 * Apply pending events and render a frame; output thread, or caller of a spy created by
+	 * {@link #forTerminal(Terminal, PrintStream, Config)}.
+	 *
+	 * @param clock spinner clock, in 50 ms ticks
+	 * @return true if no event was pending
+	 */
+	public boolean printFrame(int clock) {
+		long frameStart = System.nanoTime();
+		finishedProjects.clear();
+		metrics.queueDepth(events.size());
+		// without client, nothing is published
+		publishing = statusPublisher != null && statusPublisher.connect(state);
+		boolean empty = events.drain(this::apply) == 0;
+		List<String> finished = new ArrayList<>();
+		List<String> live = new ArrayList<>();
+		// dumb terminals have no size
+		int width = terminal.getWidth() > 0 ? terminal.getWidth() : Integer.MAX_VALUE;
+		OutputCapture capture = outputCapture;
+		for (int id : finishedProjects) {
+			ProjectStatus finishedStatus = state.project(id);
+			if (Status.FAILED.equals(finishedStatus.getStatus()) && capture != null) {
+				// failed mojo output is handed off before the failure event; shown in a later frame if not written yet
+				pendingFailures.add(new PendingFailure(id, capture.handedOff(), frameStart + FAILURE_OUTPUT_WAIT_NANOS));
 			} else {
-				return value.substring(0, maxWidth - suffixLength) + suffix;
+				finished.add(fit(finishedStatus.toString(clock), width));
 			}
 		}
-		for (MatchResult g : matches) {
-			// length: increment from last regexp match to current regexp start
-			realLength += g.start() - lastStop;
-			// check if adding last segment overflow maxWidth
-			int stop = g.start();
-			if (realLength >= maxWidth) {
-				// update stop to truncate segment at appropriate size
-				stop -= realLength - maxWidth;
-				if (length(value.substring(stop)) > 0) {
-					suffixNeeded = true;
-					stop -= suffixLength;
+		for (Iterator<PendingFailure> failures = pendingFailures.iterator(); failures.hasNext();) {
+			PendingFailure failure = failures.next();
+			if (capture == null || capture.isWritten(failure.mark) || frameStart - failure.deadline >= 0) {
+				failures.remove();
+				finished.add(fit(state.project(failure.project).toString(clock), width));
+				for (String failureLine : failureTail(capture, failure.project)) {
+					finished.add(fit(Constants.TERM_ESCAPE + Constants.TERM_GREY + "  | " + Constants.TERM_RESET + failureLine.replace("\t", "    "), width));
 				}
 			}
-			ellipsized.append(value.substring(lastStop, stop));
-			if (realLength >= maxWidth) {
-				break;
+		}
+		int nbBuilding = state.count(Status.BUILDING);
+		int nbSkipped = state.count(Status.SKIPPED);
+		// keep live area on screen: one line for summary, one for cursor
+		int available = terminal.getHeight() > 0 ? terminal.getHeight() - 2 : Integer.MAX_VALUE;
+		if (nbSkipped > 0) {
+			available--;
+		}
+		boolean showThreads = state.getThreads() > 1 && renderer.isInteractive();
+		if (showThreads) {
+			available--;
+		}
+		Snapshot transferSnapshot = remoteTransfers;
+		if (transferSnapshot == null && (publishing || transfers.inFlight() > 0)) {
+			transferSnapshot = transfers.snapshot(System.nanoTime());
+		}
+		int inFlight = transferSnapshot != null ? transferSnapshot.getInFlight() : 0;
+		if (inFlight > 0 && renderer.isInteractive()) {
+			available--;
+		}
+		int visible = nbBuilding <= available ? nbBuilding : Math.max(0, available - 1);
+		if (!renderer.isInteractive()) {
+			visible = 0;
+		}
+		for (int id = state.nextBuilding(0); id != -1 && live.size() < visible; id = state.nextBuilding(id + 1)) {
+			ProjectStatus building = state.project(id);
+			if (testProgress != null) {
+				building.tests(testProgress.classes(id), testProgress.run(id), testProgress.failed(id));
+			}
+			live.add(building.toString(clock, width));
+		}
+		if (nbBuilding > visible) {
+			live.add(fit(String.format(Constants.TERM_ESCAPE + Constants.TERM_GREY + "+%d more building" + Constants.TERM_RESET, nbBuilding - visible), width));
+		}
+		if (nbSkipped > 0) {
+			live.add(fit(String.format(Constants.TERM_ESCAPE + Constants.TERM_GREY + "%d skipped" + Constants.TERM_RESET, nbSkipped), width));
+		}
+		if (inFlight > 0 && renderer.isInteractive()) {
+			live.add(fit(transferLine(transferSnapshot), width));
+		}
+		if (showThreads) {
+			live.add(fit(String.format(Constants.TERM_ESCAPE + Constants.TERM_GREY + "busy %d/%d, ready %d, blocked %d" + Constants.TERM_RESET,
+					state.busy(), state.getThreads(), state.ready(), state.blocked()), width));
+		}
+		int nbSuccess = state.count(Status.SUCCESS);
+		summary.setLength(0);
+		summary.append("Built ").append(Constants.TERM_ESCAPE).append(Constants.TERM_BOLD).append(nbSuccess).append('/').append(state.size()).append(Constants.TERM_RESET)
+				.append(" projects... Failed: ").append(state.count(Status.FAILED))
+				.append(" - Success: ").append(nbSuccess)
+				.append(" - Planned: ").append(state.count(Status.PLANNED))
+				.append(" - Skipped: ").append(nbSkipped);
+		if (estimate != null) {
+			summary.append(estimate.toString(state, timeSource.getAsLong()));
+		}
+		live.add(fit(summary.toString(), width));
+		renderer.render(finished, live, width);
+		if (publishing) {
+			publish(transferSnapshot);
+		}
+		metrics.frameRendered(System.nanoTime() - frameStart, renderer.getBytesWritten());
+		return empty;
+	}
+
+	/**
+	 * Publish counters of the frame and send its batch to status clients.
+	 */
+	private void publish(Snapshot transferSnapshot) {
+		if (testProgress != null) {
+			for (int id = state.nextBuilding(0); id != -1; id = state.nextBuilding(id + 1)) {
+				statusPublisher.tests(id, testProgress.classes(id), testProgress.run(id), testProgress.failed(id), testProgress.skipped(id));
 			}
-			ellipsized.append(value.substring(g.start(), g.end()));
-			lastStop = g.end();
-			resetNeeded = !resetNeeded;
 		}
-		if (resetNeeded) {
-			ellipsized.append(Constants.TERM_RESET);
+		statusPublisher.transfers(transferSnapshot);
+		statusPublisher.frame(timeSource.getAsLong());
+	}
+
+	private String transferLine(Snapshot transferSnapshot) {
+		return String.format(Constants.TERM_ESCAPE + Constants.TERM_GREY + "Transferring %d artifact(s) at %s/s%s" + Constants.TERM_RESET,
+				transferSnapshot.getInFlight(), TransferStats.size(transferSnapshot.getThroughput()),
+				transferSnapshot.getSlowestName() != null
+						? String.format(" - slowest: %s (%s/s)", transferSnapshot.getSlowestName(), TransferStats.size(transferSnapshot.getSlowestRate()))
+						: "");
+	}
+
+	/**
+	 * Show test counts received from a published build; replay only.
+	 */
+	void setTestProgress(TestProgress testProgress) {
+		this.testProgress = testProgress;
+	}
+
+	/**
+	 * Show transfers received from a published build; replay only.
+	 */
+	void setTransfers(Snapshot remoteTransfers) {
+		this.remoteTransfers = remoteTransfers;
+	}
+
+	/**
+	 * @return last output lines of the failed mojo of <code>project</code>, as written so far
+	 */
+	private List<String> failureTail(OutputCapture capture, int project) {
+		if (capture == null) {
+			return List.of();
 		}
-		if (suffixNeeded) {
-			ellipsized.append(suffix);
+		try {
+			return capture.tail(project, config.getFailureLines());
+		} catch (IOException e) {
+			return List.of();
 		}
-		return ellipsized.toString();
 	}
 
-	private static int length(String value) {
-		return Constants.ESCAPE_PATTERN.matcher(value).replaceAll("").length();
+	/**
+	 * Fit a line in terminal width, using the reusable line buffer.
+	 */
+	private String fit(String value, int width) {
+		line.setLength(0);
+		return TermString.ellipsize(value, width, ">", 1, line) ? line.toString() : value;
+	}
+
+	public static String ellipsize(String value, int maxWidth) {
+		return ellipsize(value, maxWidth, "", 0);
+	}
+
+	public static String ellipsize(String value, int maxWidth, String suffix, int suffixLength) {
+		StringBuilder ellipsized = new StringBuilder(value.length());
+		return TermString.ellipsize(value, maxWidth, suffix, suffixLength, ellipsized) ? ellipsized.toString() : value;
+	}
+
+	/**
+	 * Failed project waiting for its output to be written, at most until <code>deadline</code>.
+	 */
+	private static class PendingFailure {
+		private final int project;
+		// handed off output at failure
+		private final long mark;
+		private final long deadline;
+
+		PendingFailure(int project, long mark, long deadline) {
+			this.project = project;
+			this.mark = mark;
+			this.deadline = deadline;
+		}
 	}
 }
@@ -4,40 +4,45 @@ import org.eclipse.aether.transfer.TransferCancelledException;
 import org.eclipse.aether.transfer.TransferEvent;
 import org.eclipse.aether.transfer.TransferListener;
 
+import likide.pretty.transfer.TransferStats;
+
+/**
+ * Feed artifact transfers to {@link TransferStats}; called by resolver threads.
+ */
 public final class PrettyTransferListener implements TransferListener {
+	private final TransferStats stats;
+
+	public PrettyTransferListener(TransferStats stats) {
+		this.stats = stats;
+	}
+
 	@Override
 	public void transferSucceeded(TransferEvent event) {
-		// TODO Auto-generated method stub
-		
+		stats.succeeded(event.getResource(), System.nanoTime());
 	}
 
 	@Override
 	public void transferStarted(TransferEvent event) throws TransferCancelledException {
-		// TODO Auto-generated method stub
-		
+		// latency is measured from initiation
 	}
 
 	@Override
 	public void transferProgressed(TransferEvent event) throws TransferCancelledException {
-		// TODO Auto-generated method stub
-		
+		stats.progressed(event.getResource(), event.getDataLength());
 	}
 
 	@Override
 	public void transferInitiated(TransferEvent event) throws TransferCancelledException {
-		// TODO Auto-generated method stub
-		
+		stats.initiated(event.getResource(), System.nanoTime());
 	}
 
 	@Override
 	public void transferFailed(TransferEvent event) {
-		// TODO Auto-generated method stub
-		
+		stats.failed(event.getResource(), System.nanoTime());
 	}
 
 	@Override
 	public void transferCorrupted(TransferEvent event) throws TransferCancelledException {
-		// TODO Auto-generated method stub
-		
+		stats.corrupted(event.getResource());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package likide.pretty;
+
+import java.util.List;
+
+/**
+ * Frame output. A frame is made of finished lines, displayed once, and live lines, the last one being the build
+ * summary.
+ */
+public interface Renderer {
+
+	/**
+	 * @return bytes written for this frame
+	 */
+	int render(List<String> finished, List<String> live, int width);
+
+	/**
+	 * Write what is still pending at end of build.
+	 */
+	default void close() {
+	}
+
+	/**
+	 * @return false if only finished lines and summary are displayed
+	 */
+	boolean isInteractive();
+
+	long getFrameCount();
+
+	long getBytesWritten();
+}
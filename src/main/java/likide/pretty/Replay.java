@@ -0,0 +1,153 @@
+package likide.pretty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.plugin.MojoExecution;
+import org.jline.terminal.Size;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.impl.DumbTerminal;
+
+import likide.pretty.model.ReactorState;
+import likide.pretty.replay.EventReader;
+
+/**
+ * Replay an event log recorded with <code>PRETTY_RECORD=&lt;file&gt;</code> through the status model and frame
+ * renderer, on a virtual terminal.
+ *
+ * <pre>
+ * java -cp maven-pretty.jar:&lt;maven lib&gt;/* likide.pretty.Replay &lt;file&gt; [--speed N | --fast] [--size COLUMNSxROWS] [--quiet]
+ * </pre>
+ *
+ * At real (or N×) speed, frames are rendered at {@link Config#getMaxFps()} of replay time; with <code>--fast</code>,
+ * events are replayed without waiting and a frame is rendered for each frame interval of recorded time.
+ */
+public class Replay implements EventReader.Listener {
+
+	private static final long CLOCK_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private final PrettyEventSpy spy;
+	private final double speed;
+	private final long frameNanos;
+	private final long base = System.nanoTime();
+	private ReactorState session;
+	// recorded time of next frame
+	private long nextFrame = 0;
+	// recorded time, from session start
+	private long now = 0;
+
+	/**
+	 * @param speed replay speed factor; 0 for as fast as possible
+	 */
+	Replay(Terminal terminal, PrintStream output, Config config, double speed) {
+		this.spy = new PrettyEventSpy(terminal, output, config, () -> base + now);
+		this.speed = speed;
+		this.frameNanos = TimeUnit.SECONDS.toNanos(1) / config.getMaxFps();
+	}
+
+	@Override
+	public void session(ReactorState state, long time) {
+		session = state;
+		now = 0;
+		nextFrame = 0;
+		spy.replay(session, Type.SessionStarted, -1, null, base, 0, 0);
+	}
+
+	@Override
+	public void event(Type type, int project, MojoExecution execution, long time, long thread) {
+		renderUntil(time);
+		now = time;
+		spy.replay(session, type, project, execution, base + time, thread, clock(time));
+	}
+
+	/**
+	 * Render frames due before recorded <code>time</code>, waiting for them unless replaying as fast as possible.
+	 */
+	private void renderUntil(long time) {
+		while (nextFrame <= time) {
+			if (speed > 0) {
+				long wait = base + (long) (nextFrame / speed) - System.nanoTime();
+				if (wait > 0) {
+					sleep(wait);
+				}
+			}
+			now = nextFrame;
+			spy.printFrame(clock(nextFrame));
+			nextFrame += frameNanos;
+		}
+	}
+
+	void finish() {
+		spy.printFrame(clock(now));
+		spy.printSessionEnd();
+	}
+
+	private static int clock(long time) {
+		return (int) (time / CLOCK_TICK_NANOS % 10000);
+	}
+
+	private static void sleep(long nanos) {
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path file = null;
+		double speed = 1;
+		int columns = 160;
+		int rows = 50;
+		boolean quiet = false;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--speed":
+				speed = Double.parseDouble(args[++i]);
+				break;
+			case "--fast":
+				speed = 0;
+				break;
+			case "--size":
+				String[] size = args[++i].split("x");
+				columns = Integer.parseInt(size[0]);
+				rows = Integer.parseInt(size[1]);
+				break;
+			case "--quiet":
+				quiet = true;
+				break;
+			default:
+				file = Paths.get(args[i]);
+				break;
+			}
+		}
+		if (file == null) {
+			System.err.println("Usage: Replay <file> [--speed N | --fast] [--size COLUMNSxROWS] [--quiet]");
+			System.exit(1);
+		}
+		PrintStream output = quiet ? new PrintStream(OutputStream.nullOutputStream()) : System.out;
+		Terminal terminal = new DumbTerminal("replay", "xterm-256color", InputStream.nullInputStream(), OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+		terminal.setSize(new Size(columns, rows));
+		// keep replayed timings out of the build history
+		Path timings = Files.createTempFile("maven-pretty-replay", ".bin");
+		Config environment = Config.fromEnvironment(System.getenv());
+		Config config = new Config(true, environment.getMaxFps(), environment.getSummaryInterval(), environment.getFailureLines(), timings, null, null, -1);
+		Replay replay = new Replay(terminal, output, config, speed);
+		long start = System.nanoTime();
+		try (EventReader reader = new EventReader(file)) {
+			reader.read(replay);
+			replay.finish();
+		} finally {
+			Files.deleteIfExists(timings);
+		}
+		System.err.println(String.format("Replayed %s in %d ms", file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+	}
+}
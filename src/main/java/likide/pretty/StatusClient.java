@@ -0,0 +1,122 @@
+package likide.pretty;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.plugin.MojoExecution;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+
+import likide.pretty.capture.TestProgress;
+import likide.pretty.model.ReactorState;
+import likide.pretty.status.StatusReader;
+import likide.pretty.transfer.TransferStats.Snapshot;
+
+/**
+ * Render the status of a build published with <code>PRETTY_STATUS_PORT=&lt;port&gt;</code>, as the build would.
+ *
+ * <pre>
+ * java -cp maven-pretty.jar:&lt;maven lib&gt;/* likide.pretty.StatusClient [host:]port
+ * </pre>
+ *
+ * A frame is rendered for each frame of the build; failure output is not published, so failed projects are shown
+ * without their last output lines.
+ */
+public class StatusClient implements StatusReader.Listener {
+
+	private static final long CLOCK_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private final Terminal terminal;
+	private final PrintStream output;
+	private final Config config;
+	private final long base = System.nanoTime();
+	private PrettyEventSpy spy;
+	private ReactorState session;
+	private TestProgress testProgress;
+	// published time, from session start
+	private long now = 0;
+
+	StatusClient(Terminal terminal, PrintStream output, Config config) {
+		this.terminal = terminal;
+		this.output = output;
+		this.config = config;
+	}
+
+	@Override
+	public void session(ReactorState state, long time) {
+		session = state;
+		now = 0;
+		// a spy per session, as its renderer is closed at session end
+		spy = new PrettyEventSpy(terminal, output, config, () -> base + now);
+		testProgress = new TestProgress(state.size());
+		spy.setTestProgress(testProgress);
+		spy.replay(session, Type.SessionStarted, -1, null, base, 0, 0);
+	}
+
+	@Override
+	public void event(Type type, int project, MojoExecution execution, long time, long thread) {
+		if (spy != null) {
+			spy.replay(session, type, project, execution, base + time, thread, clock(time));
+		}
+	}
+
+	@Override
+	public void tests(int project, int classes, int run, int failed, int skipped) {
+		if (testProgress != null) {
+			testProgress.set(project, classes, run, failed, skipped);
+		}
+	}
+
+	@Override
+	public void transfers(Snapshot transfers) {
+		if (spy != null) {
+			spy.setTransfers(transfers);
+		}
+	}
+
+	@Override
+	public void frame(long time) {
+		if (spy != null) {
+			now = time;
+			spy.printFrame(clock(time));
+		}
+	}
+
+	@Override
+	public void end() {
+		if (spy != null) {
+			spy.printSessionEnd();
+			spy = null;
+		}
+	}
+
+	private static int clock(long time) {
+		return (int) (time / CLOCK_TICK_NANOS % 10000);
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: StatusClient [host:]port");
+			System.exit(1);
+		}
+		int separator = args[0].lastIndexOf(':');
+		String host = separator != -1 ? args[0].substring(0, separator) : "127.0.0.1";
+		int port = Integer.parseInt(args[0].substring(separator + 1));
+		// keep client timings out of the build history
+		Path timings = Files.createTempFile("maven-pretty-status", ".bin");
+		Config environment = Config.fromEnvironment(System.getenv());
+		Config config = new Config(true, environment.getMaxFps(), environment.getSummaryInterval(), environment.getFailureLines(), timings, null, null, -1);
+		try (Terminal terminal = TerminalBuilder.terminal();
+				Socket socket = new Socket(host, port);
+				StatusReader reader = new StatusReader(socket.getInputStream())) {
+			reader.read(new StatusClient(terminal, System.out, config));
+		} finally {
+			Files.deleteIfExists(timings);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package likide.pretty;
+
+/**
+ * Terminal string measurement and truncation. SGR escape sequences (<code>ESC [ ... m</code>) take no column; wide
+ * (East Asian, emoji) code points take two columns; control and combining code points take none.
+ */
+public final class TermString {
+
+	private TermString() {
+	}
+
+	/**
+	 * @return displayed column count of <code>value</code>
+	 */
+	public static int width(CharSequence value) {
+		int width = 0;
+		int length = value.length();
+		int i = 0;
+		while (i < length) {
+			int escapeEnd = escapeEnd(value, i);
+			if (escapeEnd != -1) {
+				i = escapeEnd;
+				continue;
+			}
+			int codePoint = Character.codePointAt(value, i);
+			width += charWidth(codePoint);
+			i += Character.charCount(codePoint);
+		}
+		return width;
+	}
+
+	/**
+	 * Append <code>value</code> to <code>out</code>, truncated to <code>maxWidth</code> columns. If truncated, the
+	 * content is cut at <code>maxWidth - suffixLength</code> columns, an open style is reset, and <code>suffix</code>
+	 * is appended.
+	 *
+	 * @return true if <code>value</code> was truncated
+	 */
+	public static boolean ellipsize(CharSequence value, int maxWidth, String suffix, int suffixLength, StringBuilder out) {
+		int softLimit = maxWidth - suffixLength;
+		int width = 0;
+		boolean resetNeeded = false;
+		// cut position: after the last visible code point that fits before suffix
+		int mark = out.length();
+		boolean markResetNeeded = false;
+		int length = value.length();
+		int i = 0;
+		while (i < length) {
+			int escapeEnd = escapeEnd(value, i);
+			if (escapeEnd != -1) {
+				out.append(value, i, escapeEnd);
+				resetNeeded = !isReset(value, i, escapeEnd);
+				i = escapeEnd;
+				continue;
+			}
+			int codePoint = Character.codePointAt(value, i);
+			width += charWidth(codePoint);
+			if (width > maxWidth) {
+				out.setLength(mark);
+				if (markResetNeeded) {
+					out.append(Constants.TERM_RESET);
+				}
+				out.append(suffix);
+				return true;
+			}
+			out.appendCodePoint(codePoint);
+			if (width <= softLimit) {
+				mark = out.length();
+				markResetNeeded = resetNeeded;
+			}
+			i += Character.charCount(codePoint);
+		}
+		return false;
+	}
+
+	/**
+	 * Append <code>value</code> to <code>out</code> without its SGR escape sequences.
+	 */
+	public static void strip(CharSequence value, StringBuilder out) {
+		int length = value.length();
+		int i = 0;
+		while (i < length) {
+			int escapeEnd = escapeEnd(value, i);
+			if (escapeEnd != -1) {
+				i = escapeEnd;
+			} else {
+				out.append(value.charAt(i++));
+			}
+		}
+	}
+
+	/**
+	 * @return displayed column count of a code point
+	 */
+	public static int charWidth(int codePoint) {
+		if (codePoint < 0x300) {
+			// ASCII and latin: only control characters are zero-width
+			return codePoint < 0x20 || (codePoint >= 0x7f && codePoint < 0xa0) ? 0 : 1;
+		}
+		if (codePoint >= 0x1160 && codePoint <= 0x11ff) {
+			// hangul medial vowels and final consonants combine with the leading consonant
+			return 0;
+		}
+		switch (Character.getType(codePoint)) {
+		case Character.NON_SPACING_MARK:
+		case Character.ENCLOSING_MARK:
+		case Character.FORMAT:
+			return 0;
+		default:
+			break;
+		}
+		return isWide(codePoint) ? 2 : 1;
+	}
+
+	private static boolean isWide(int codePoint) {
+		return codePoint >= 0x1100
+				&& (codePoint <= 0x115f
+						|| codePoint == 0x2329 || codePoint == 0x232a
+						|| (codePoint >= 0x2e80 && codePoint <= 0xa4cf && codePoint != 0x303f)
+						|| (codePoint >= 0xac00 && codePoint <= 0xd7a3)
+						|| (codePoint >= 0xf900 && codePoint <= 0xfaff)
+						|| (codePoint >= 0xfe10 && codePoint <= 0xfe19)
+						|| (codePoint >= 0xfe30 && codePoint <= 0xfe6f)
+						|| (codePoint >= 0xff00 && codePoint <= 0xff60)
+						|| (codePoint >= 0xffe0 && codePoint <= 0xffe6)
+						|| (codePoint >= 0x1f300 && codePoint <= 0x1f64f)
+						|| (codePoint >= 0x1f900 && codePoint <= 0x1f9ff)
+						|| (codePoint >= 0x20000 && codePoint <= 0x2fffd)
+						|| (codePoint >= 0x30000 && codePoint <= 0x3fffd));
+	}
+
+	/**
+	 * @return end (exclusive) of the SGR escape sequence starting at <code>start</code>, or -1
+	 */
+	private static int escapeEnd(CharSequence value, int start) {
+		int length = value.length();
+		if (value.charAt(start) != '\033' || start + 1 >= length || value.charAt(start + 1) != '[') {
+			return -1;
+		}
+		for (int i = start + 2; i < length; i++) {
+			if (value.charAt(i) == 'm') {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isReset(CharSequence value, int start, int end) {
+		// ESC[m or ESC[0m
+		return end == start + 3 || (end == start + 4 && value.charAt(start + 2) == '0');
+	}
+}
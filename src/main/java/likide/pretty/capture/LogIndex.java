@@ -0,0 +1,61 @@
+package likide.pretty.capture;
+
+import java.util.Arrays;
+
+/**
+ * Byte ranges of the combined log, by project and mojo execution. Segments of a project are chained from the last
+ * one, so that the end of a project output is found without scanning the index.
+ */
+class LogIndex {
+	private long[] offsets = new long[1024];
+	private int[] lengths = new int[1024];
+	private int[] mojos = new int[1024];
+	// previous segment of same project, or -1
+	private int[] previous = new int[1024];
+	private final int[] lastSegments;
+	private int size = 0;
+
+	LogIndex(int projectCount) {
+		lastSegments = new int[projectCount];
+		Arrays.fill(lastSegments, -1);
+	}
+
+	void add(int project, int mojo, long offset, int length) {
+		if (size == offsets.length) {
+			int capacity = size * 2;
+			offsets = Arrays.copyOf(offsets, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			mojos = Arrays.copyOf(mojos, capacity);
+			previous = Arrays.copyOf(previous, capacity);
+		}
+		offsets[size] = offset;
+		lengths[size] = length;
+		mojos[size] = mojo;
+		previous[size] = lastSegments[project];
+		lastSegments[project] = size;
+		size++;
+	}
+
+	/**
+	 * @return last segment of project, or -1
+	 */
+	int last(int project) {
+		return lastSegments[project];
+	}
+
+	int previous(int segment) {
+		return previous[segment];
+	}
+
+	long offset(int segment) {
+		return offsets[segment];
+	}
+
+	int length(int segment) {
+		return lengths[segment];
+	}
+
+	int mojo(int segment) {
+		return mojos[segment];
+	}
+}
@@ -0,0 +1,550 @@
+package likide.pretty.capture;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import likide.pretty.metrics.LatencyHistogram;
+
+/**
+ * Maven output capture. Each writing thread fills its own buffer, attributed to the project the thread is building
+ * (see {@link #attach(int)}); threads started by a builder thread, like forked test output pumpers, share its
+ * attribution. Full, stale or re-attributed buffers are handed off to a writer thread that appends them to a combined
+ * log and to one log per project with batched channel writes.
+ *
+ * Combined log segments are indexed by project and mojo execution, so that the end of a project output can be read
+ * back in constant time with {@link #tail(int, int, long, TimeUnit)}.
+ *
+ * Surefire / Failsafe progress lines are counted by project as they are written, see {@link #getTestProgress()}.
+ *
+ * Once closed, or if logs cannot be written, output is written directly to a fallback stream.
+ */
+public class OutputCapture extends OutputStream {
+
+	private static final int BUFFER_SIZE = 16 * 1024;
+	// buffered output older than this is handed off on next write
+	private static final long MAX_BUFFER_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+	// upper bound of bytes read for a tail
+	private static final int MAX_TAIL_BYTES = 64 * 1024;
+	// buffers of dead threads are released at most this often
+	private static final long CLEANUP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final Segment END = new Segment(null, 0, -1, -1);
+
+	private final Path directory;
+	private final Path combinedFile;
+	private final FileChannel combined;
+	private final OutputStream fallback;
+	private final String[] projectNames;
+	// writer thread only
+	private final FileChannel[] projectChannels;
+	private final InheritableThreadLocal<Attribution> attributions = new InheritableThreadLocal<>() {
+		@Override
+		protected Attribution initialValue() {
+			return new Attribution(Thread.currentThread());
+		}
+	};
+	private final ThreadLocal<ThreadBuffer> buffers = ThreadLocal.withInitial(this::newThreadBuffer);
+	private final Queue<ThreadBuffer> threadBuffers = new ConcurrentLinkedQueue<>();
+	private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+	private final BlockingQueue<Segment> segments = new LinkedBlockingQueue<>();
+	private final Thread writer;
+	private final LatencyHistogram writeLatency;
+	private final TestProgress testProgress;
+	private final AtomicInteger mojoSequence = new AtomicInteger();
+	private final AtomicLong handedOff = new AtomicLong();
+	// guarded by index
+	private final LogIndex index;
+	private long written = 0;
+	// writer thread only
+	private long position = 0;
+	private long lastCleanup = System.nanoTime();
+	private boolean closed = false;
+	// output is written to fallback: capture is closed or writer failed
+	private volatile boolean direct = false;
+
+	/**
+	 * @param projectNames project names indexed by project id, used as per-project log file names
+	 */
+	public OutputCapture(Path directory, List<String> projectNames) throws IOException {
+		this(directory, projectNames, new LatencyHistogram(), OutputStream.nullOutputStream());
+	}
+
+	/**
+	 * @param writeLatency records write duration of each batch of captured output
+	 * @param fallback stream written to once closed, usually the stream replaced by the capture
+	 */
+	public OutputCapture(Path directory, List<String> projectNames, LatencyHistogram writeLatency, OutputStream fallback) throws IOException {
+		this.directory = directory;
+		this.writeLatency = writeLatency;
+		this.fallback = fallback;
+		this.combinedFile = directory.resolve("maven.log");
+		this.combined = FileChannel.open(combinedFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.projectNames = fileNames(projectNames);
+		this.projectChannels = new FileChannel[projectNames.size()];
+		this.index = new LogIndex(projectNames.size());
+		this.testProgress = new TestProgress(projectNames.size());
+		Files.createDirectories(directory.resolve("modules"));
+		this.writer = new Thread(this::write, "maven-pretty-capture");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	private static String[] fileNames(List<String> projectNames) {
+		String[] fileNames = new String[projectNames.size()];
+		Set<String> used = new HashSet<>();
+		for (int i = 0; i < fileNames.length; i++) {
+			String name = projectNames.get(i).replaceAll("[^A-Za-z0-9._-]", "_");
+			fileNames[i] = used.add(name) ? name : name + "-" + i;
+		}
+		return fileNames;
+	}
+
+	/**
+	 * Attribute next output of current thread, and of threads it started, to a new mojo execution of
+	 * <code>project</code>; -1 for no project. Test counts of <code>project</code> restart from zero.
+	 */
+	public void attach(int project) {
+		if (direct) {
+			return;
+		}
+		ThreadBuffer buffer = buffers.get();
+		synchronized (buffer) {
+			if (buffer.attribution.owner != Thread.currentThread()) {
+				// inherited: stop sharing attribution of parent thread
+				buffer.attribution = new Attribution(Thread.currentThread());
+				attributions.set(buffer.attribution);
+			}
+			buffer.attribution.set(project, project != -1 ? mojoSequence.incrementAndGet() : -1);
+			attribute(buffer);
+		}
+		if (project != -1) {
+			testProgress.mojoStarted(project);
+		}
+	}
+
+	/**
+	 * Hand off buffered output if attribution of the buffer thread changed.
+	 */
+	private void attribute(ThreadBuffer buffer) {
+		long value = buffer.attribution.value;
+		if (value != buffer.attributed) {
+			handOff(buffer);
+			buffer.attributed = value;
+			buffer.project = Attribution.project(value);
+			buffer.mojo = Attribution.mojo(value);
+			buffer.parser.reset(buffer.project);
+		}
+	}
+
+	/**
+	 * Hand off output buffered by current thread.
+	 */
+	public void release() {
+		if (direct) {
+			return;
+		}
+		ThreadBuffer buffer = buffers.get();
+		synchronized (buffer) {
+			attribute(buffer);
+			handOff(buffer);
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		if (direct) {
+			// late output (after session end) is written synchronously
+			writeDirect(bytes, offset, length);
+			return;
+		}
+		ThreadBuffer buffer = buffers.get();
+		synchronized (buffer) {
+			if (direct) {
+				// closed meanwhile, buffer is already written
+				writeDirect(bytes, offset, length);
+				return;
+			}
+			attribute(buffer);
+			if (buffer.length > 0 && System.nanoTime() - buffer.firstWrite > MAX_BUFFER_AGE_NANOS) {
+				handOff(buffer);
+			}
+			buffer.parser.parse(bytes, offset, length);
+			while (length > 0) {
+				if (buffer.length == 0) {
+					buffer.firstWrite = System.nanoTime();
+				}
+				int count = Math.min(length, buffer.bytes.length - buffer.length);
+				System.arraycopy(bytes, offset, buffer.bytes, buffer.length, count);
+				buffer.length += count;
+				offset += count;
+				length -= count;
+				if (buffer.length == buffer.bytes.length) {
+					handOff(buffer);
+				}
+			}
+		}
+	}
+
+	private ThreadBuffer newThreadBuffer() {
+		ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread(), allocate(), attributions.get(), new SurefireParser(testProgress));
+		threadBuffers.add(buffer);
+		return buffer;
+	}
+
+	private byte[] allocate() {
+		byte[] bytes = freeBuffers.poll();
+		return bytes != null ? bytes : new byte[BUFFER_SIZE];
+	}
+
+	private void handOff(ThreadBuffer buffer) {
+		if (buffer.length == 0) {
+			return;
+		}
+		if (direct) {
+			writeDirect(buffer.bytes, 0, buffer.length);
+			buffer.length = 0;
+			return;
+		}
+		handedOff.incrementAndGet();
+		segments.add(new Segment(buffer.bytes, buffer.length, buffer.project, buffer.mojo));
+		buffer.bytes = allocate();
+		buffer.length = 0;
+		if (direct) {
+			// writer stopped meanwhile
+			drainDirect();
+		}
+	}
+
+	private void writeDirect(byte[] bytes, int offset, int length) {
+		synchronized (fallback) {
+			try {
+				fallback.write(bytes, offset, length);
+			} catch (IOException e) {
+				// as with PrintStream, output errors are not reported
+			}
+		}
+	}
+
+	/**
+	 * Write handed off output to fallback.
+	 */
+	private void drainDirect() {
+		for (Segment segment = segments.poll(); segment != null; segment = segments.poll()) {
+			if (segment != END) {
+				writeDirect(segment.bytes, 0, segment.length);
+			}
+		}
+	}
+
+	private void write() {
+		List<Segment> batch = new ArrayList<>();
+		try {
+			boolean end = false;
+			while (!end) {
+				// wake up without output to release buffers of dead threads
+				Segment first = segments.poll(CLEANUP_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+				if (first != null) {
+					batch.add(first);
+					segments.drainTo(batch);
+					end = batch.remove(END);
+					long writeStart = System.nanoTime();
+					writeBatch(batch);
+					writeLatency.record(System.nanoTime() - writeStart);
+					batch.clear();
+				}
+				long now = System.nanoTime();
+				if (!end && now - lastCleanup > CLEANUP_INTERVAL_NANOS) {
+					releaseDeadThreads();
+					lastCleanup = now;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			// logs are incomplete; stop capturing, next output goes to fallback
+			direct = true;
+			drainDirect();
+		}
+	}
+
+	/**
+	 * Hand off output of dead threads and release their buffers.
+	 */
+	private void releaseDeadThreads() {
+		for (Iterator<ThreadBuffer> iterator = threadBuffers.iterator(); iterator.hasNext();) {
+			ThreadBuffer buffer = iterator.next();
+			if (!buffer.thread.isAlive()) {
+				synchronized (buffer) {
+					handOff(buffer);
+					freeBuffers.add(buffer.bytes);
+					buffer.bytes = null;
+				}
+				iterator.remove();
+			}
+		}
+	}
+
+	private void writeBatch(List<Segment> batch) throws IOException {
+		ByteBuffer[] combinedBuffers = new ByteBuffer[batch.size()];
+		for (int i = 0; i < combinedBuffers.length; i++) {
+			Segment segment = batch.get(i);
+			combinedBuffers[i] = ByteBuffer.wrap(segment.bytes, 0, segment.length);
+		}
+		writeFully(combined, combinedBuffers);
+		synchronized (index) {
+			for (Segment segment : batch) {
+				if (segment.project != -1) {
+					index.add(segment.project, segment.mojo, position, segment.length);
+				}
+				position += segment.length;
+			}
+			written += batch.size();
+			index.notifyAll();
+		}
+		for (Segment segment : batch) {
+			if (segment.project != -1) {
+				writeFully(projectChannel(segment.project), new ByteBuffer[] { ByteBuffer.wrap(segment.bytes, 0, segment.length) });
+			}
+			freeBuffers.add(segment.bytes);
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+		int last = buffers.length - 1;
+		while (last >= 0 && buffers[last].hasRemaining()) {
+			channel.write(buffers);
+		}
+	}
+
+	private FileChannel projectChannel(int project) throws IOException {
+		if (projectChannels[project] == null) {
+			projectChannels[project] = FileChannel.open(directory.resolve("modules").resolve(projectNames[project] + ".log"),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+		return projectChannels[project];
+	}
+
+	/**
+	 * Write all buffered output, stop writer thread and close logs. Output received afterwards is written
+	 * synchronously to the fallback stream.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		for (ThreadBuffer buffer : threadBuffers) {
+			synchronized (buffer) {
+				handOff(buffer);
+			}
+		}
+		segments.add(END);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (FileChannel channel : projectChannels) {
+			if (channel != null) {
+				channel.close();
+			}
+		}
+		combined.close();
+		direct = true;
+		// remaining output written by other threads after hand off
+		drainDirect();
+		for (ThreadBuffer buffer : threadBuffers) {
+			synchronized (buffer) {
+				handOff(buffer);
+			}
+		}
+		threadBuffers.clear();
+		freeBuffers.clear();
+	}
+
+	/**
+	 * @return mark of the output handed off so far, see {@link #isWritten(long)}
+	 */
+	public long handedOff() {
+		return handedOff.get();
+	}
+
+	/**
+	 * @return true if output handed off before <code>mark</code> was taken is written and indexed, or will never be
+	 */
+	public boolean isWritten(long mark) {
+		synchronized (index) {
+			return written >= mark || !writer.isAlive();
+		}
+	}
+
+	/**
+	 * Read the last lines output by the last mojo execution of <code>project</code>. Output handed off before this
+	 * call is waited for, at most <code>timeout</code>.
+	 */
+	public List<String> tail(int project, int maxLines, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+		long target = handedOff.get();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (index) {
+			long remaining = deadline - System.nanoTime();
+			while (written < target && remaining > 0 && writer.isAlive()) {
+				TimeUnit.NANOSECONDS.timedWait(index, remaining);
+				remaining = deadline - System.nanoTime();
+			}
+			return tail(project, maxLines);
+		}
+	}
+
+	/**
+	 * Read the last lines output by the last mojo execution of <code>project</code>, as written so far; does not
+	 * wait.
+	 */
+	public List<String> tail(int project, int maxLines) throws IOException {
+		List<ByteBuffer> parts = new ArrayList<>();
+		int size = 0;
+		synchronized (index) {
+			int segment = index.last(project);
+			if (segment == -1) {
+				return List.of();
+			}
+			int mojo = index.mojo(segment);
+			int newlines = 0;
+			try (FileChannel reader = FileChannel.open(combinedFile, StandardOpenOption.READ)) {
+				// walk back segments of the mojo execution until enough lines are found
+				for (; segment != -1 && index.mojo(segment) == mojo && newlines < maxLines && size < MAX_TAIL_BYTES; segment = index.previous(segment)) {
+					ByteBuffer mapped = reader.map(MapMode.READ_ONLY, index.offset(segment), index.length(segment));
+					int start = mapped.limit();
+					while (start > 0 && newlines < maxLines && size < MAX_TAIL_BYTES) {
+						// trailing newline of output does not end a tail line
+						if (mapped.get(start - 1) == '\n' && (size > 0 || start < mapped.limit())) {
+							newlines++;
+							if (newlines == maxLines) {
+								break;
+							}
+						}
+						start--;
+						size++;
+					}
+					mapped.position(start);
+					parts.add(0, mapped.slice());
+				}
+			}
+		}
+		if (size == 0) {
+			return List.of();
+		}
+		byte[] bytes = new byte[size];
+		int offset = 0;
+		for (ByteBuffer part : parts) {
+			int length = part.remaining();
+			part.get(bytes, offset, length);
+			offset += length;
+		}
+		List<String> lines = new ArrayList<>();
+		for (String line : new String(bytes, Charset.defaultCharset()).split("\r?\n")) {
+			lines.add(line);
+		}
+		return lines;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public Path getCombinedFile() {
+		return combinedFile;
+	}
+
+	public TestProgress getTestProgress() {
+		return testProgress;
+	}
+
+	/**
+	 * Project and mojo execution output of a thread is attributed to, shared with threads it starts.
+	 */
+	private static final class Attribution {
+		private static final long NONE = pack(-1, -1);
+
+		private final Thread owner;
+		// project and mojo, packed to be read at once
+		private volatile long value = NONE;
+
+		private Attribution(Thread owner) {
+			this.owner = owner;
+		}
+
+		private void set(int project, int mojo) {
+			value = pack(project, mojo);
+		}
+
+		private static long pack(int project, int mojo) {
+			return ((long) project << 32) | (mojo & 0xffffffffL);
+		}
+
+		private static int project(long value) {
+			return (int) (value >> 32);
+		}
+
+		private static int mojo(long value) {
+			return (int) value;
+		}
+	}
+
+	private static final class ThreadBuffer {
+		private final Thread thread;
+		private byte[] bytes;
+		private int length = 0;
+		private Attribution attribution;
+		// attribution value of buffered output
+		private long attributed = Attribution.NONE;
+		private int project = -1;
+		private int mojo = -1;
+		private final SurefireParser parser;
+		private long firstWrite;
+
+		private ThreadBuffer(Thread thread, byte[] bytes, Attribution attribution, SurefireParser parser) {
+			this.thread = thread;
+			this.bytes = bytes;
+			this.attribution = attribution;
+			this.parser = parser;
+		}
+	}
+
+	private static final class Segment {
+		private final byte[] bytes;
+		private final int length;
+		private final int project;
+		private final int mojo;
+
+		private Segment(byte[] bytes, int length, int project, int mojo) {
+			this.bytes = bytes;
+			this.length = length;
+			this.project = project;
+			this.mojo = mojo;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package likide.pretty.capture;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental matcher of Surefire / Failsafe progress lines, fed with output bytes as they are written:
+ *
+ * <pre>
+ * [INFO] Running com.foo.BarTest
+ * [INFO] Tests run: 12, Failures: 1, Errors: 0, Skipped: 2, Time elapsed: 0.5 s - in com.foo.BarTest
+ * </pre>
+ *
+ * ANSI escape sequences are skipped and no line is buffered. Final summaries (without <code>Time elapsed</code>) are
+ * not counted, as their tests are already counted by test class. One parser per writing thread.
+ */
+final class SurefireParser {
+	private static final byte ESC = 0x1b;
+	private static final byte[] RUNNING = ascii("Running ");
+	// literals before each count of a test class result line, and after the last one
+	private static final byte[][] RESULT = { ascii("Tests run: "), ascii(", Failures: "), ascii(", Errors: "), ascii(", Skipped: "), ascii(", Time elapsed") };
+	private static final int MAX_DIGITS = 9;
+	// escape states
+	private static final int TEXT = 0;
+	private static final int ESCAPE = 1;
+	private static final int CSI = 2;
+
+	private final TestProgress progress;
+	private int project = -1;
+	private int escape = TEXT;
+	// last two visible bytes of the line, 0 at line start
+	private byte previous = 0;
+	private byte beforePrevious = 0;
+	// matched length of RUNNING
+	private int running = 0;
+	// matched literal of RESULT and length matched in it
+	private int literal = 0;
+	private int position = 0;
+	// digits of the count after literal, -1 when matching a literal
+	private int digits = -1;
+	private final int[] counts = new int[RESULT.length - 1];
+
+	SurefireParser(TestProgress progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * Attribute next output to <code>project</code>; -1 to ignore output. A partially matched line is dropped.
+	 */
+	void reset(int project) {
+		this.project = project;
+		escape = TEXT;
+		newLine();
+	}
+
+	void parse(byte[] bytes, int offset, int length) {
+		if (project == -1) {
+			return;
+		}
+		for (int i = offset; i < offset + length; i++) {
+			byte b = bytes[i];
+			if (escape == ESCAPE) {
+				escape = b == '[' ? CSI : TEXT;
+			} else if (escape == CSI) {
+				if (b >= 0x40 && b <= 0x7e) {
+					escape = TEXT;
+				}
+			} else if (b == ESC) {
+				escape = ESCAPE;
+			} else if (b == '\n' || b == '\r') {
+				newLine();
+			} else {
+				matchRunning(b);
+				matchResult(b);
+				beforePrevious = previous;
+				previous = b;
+			}
+		}
+	}
+
+	private void newLine() {
+		previous = 0;
+		beforePrevious = 0;
+		running = 0;
+		literal = 0;
+		position = 0;
+		digits = -1;
+	}
+
+	/**
+	 * Match <code>Running </code> at line start, or after a <code>[LEVEL] </code> prefix.
+	 */
+	private void matchRunning(byte b) {
+		if (running > 0 && b == RUNNING[running]) {
+			if (++running == RUNNING.length) {
+				progress.classStarted(project);
+				running = 0;
+			}
+		} else if (b == RUNNING[0] && (previous == 0 || previous == ' ' && beforePrevious == ']')) {
+			running = 1;
+		} else {
+			running = 0;
+		}
+	}
+
+	private void matchResult(byte b) {
+		if (digits != -1) {
+			if (b >= '0' && b <= '9' && digits < MAX_DIGITS) {
+				counts[literal] = counts[literal] * 10 + b - '0';
+				digits++;
+				return;
+			} else if (digits == 0) {
+				restart(b);
+				return;
+			}
+			// count done, match next literal
+			digits = -1;
+			literal++;
+			position = 0;
+		}
+		if (b != RESULT[literal][position]) {
+			restart(b);
+		} else if (++position == RESULT[literal].length) {
+			if (literal == RESULT.length - 1) {
+				progress.classCompleted(project, counts[0], counts[1], counts[2], counts[3]);
+				literal = 0;
+				position = 0;
+			} else {
+				counts[literal] = 0;
+				digits = 0;
+			}
+		}
+	}
+
+	private void restart(byte b) {
+		literal = 0;
+		digits = -1;
+		position = b == RESULT[0][0] ? 1 : 0;
+	}
+
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,71 @@
+package likide.pretty.capture;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Surefire / Failsafe test counts by project, parsed from captured output. Counts are those of the current mojo
+ * execution of the project: they are cleared when a mojo starts. Updated by writing threads, read by the output
+ * thread.
+ */
+public class TestProgress {
+	private final AtomicIntegerArray classes;
+	private final AtomicIntegerArray run;
+	private final AtomicIntegerArray failed;
+	private final AtomicIntegerArray skipped;
+
+	public TestProgress(int projectCount) {
+		classes = new AtomicIntegerArray(projectCount);
+		run = new AtomicIntegerArray(projectCount);
+		failed = new AtomicIntegerArray(projectCount);
+		skipped = new AtomicIntegerArray(projectCount);
+	}
+
+	void mojoStarted(int project) {
+		set(project, 0, 0, 0, 0);
+	}
+
+	void classStarted(int project) {
+		classes.incrementAndGet(project);
+	}
+
+	void classCompleted(int project, int run, int failures, int errors, int skipped) {
+		this.run.addAndGet(project, run);
+		this.failed.addAndGet(project, failures + errors);
+		this.skipped.addAndGet(project, skipped);
+	}
+
+	/**
+	 * Set counts of <code>project</code>, as received from another process.
+	 */
+	public void set(int project, int classes, int run, int failed, int skipped) {
+		this.classes.set(project, classes);
+		this.run.set(project, run);
+		this.failed.set(project, failed);
+		this.skipped.set(project, skipped);
+	}
+
+	/**
+	 * @return started test classes
+	 */
+	public int classes(int project) {
+		return classes.get(project);
+	}
+
+	/**
+	 * @return tests run by completed test classes
+	 */
+	public int run(int project) {
+		return run.get(project);
+	}
+
+	/**
+	 * @return failed tests and tests in error
+	 */
+	public int failed(int project) {
+		return failed.get(project);
+	}
+
+	public int skipped(int project) {
+		return skipped.get(project);
+	}
+}
@@ -0,0 +1,61 @@
+package likide.pretty.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of 2 microsecond buckets. Percentiles are approximated by bucket upper
+ * bounds.
+ */
+public class LatencyHistogram {
+	// bucket i counts latencies below 2^i µs; last bucket counts the rest
+	private static final int BUCKETS = 32;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+
+	public void record(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets.incrementAndGet(bucket);
+		count.increment();
+		sum.add(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return sum of recorded latencies, in nanoseconds
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * @param quantile between 0 and 1
+	 * @return upper bound of the latency at <code>quantile</code>, in nanoseconds; 0 if empty
+	 */
+	public long percentile(double quantile) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && counts[i] > 0) {
+				return (1l << i) * 1000;
+			}
+		}
+		return (1l << (BUCKETS - 1)) * 1000;
+	}
+}
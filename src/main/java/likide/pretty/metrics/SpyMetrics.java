@@ -0,0 +1,178 @@
+package likide.pretty.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+
+/**
+ * Extension self-metrics. Event counters are striped ({@link LongAdder}) for builder threads; queue and frame metrics
+ * have a single writer, the output thread. Nothing locks, so recording is always on.
+ */
+public class SpyMetrics implements SpyMetricsMXBean {
+	private static final Type[] TYPES = Type.values();
+
+	private final long start = System.nanoTime();
+	private final LongAdder[] events = new LongAdder[TYPES.length];
+	private final LatencyHistogram frameRender = new LatencyHistogram();
+	private final LatencyHistogram captureWrite = new LatencyHistogram();
+	private volatile int queueDepth = 0;
+	private volatile int queueHighWaterMark = 0;
+	private volatile long terminalBytesWritten = 0;
+	private volatile long terminalInitNanos = 0;
+
+	public SpyMetrics() {
+		for (int i = 0; i < events.length; i++) {
+			events[i] = new LongAdder();
+		}
+	}
+
+	public void event(Type type) {
+		events[type.ordinal()].increment();
+	}
+
+	/**
+	 * @param depth pending event count before a drain; output thread only
+	 */
+	public void queueDepth(int depth) {
+		queueDepth = depth;
+		if (depth > queueHighWaterMark) {
+			queueHighWaterMark = depth;
+		}
+	}
+
+	/**
+	 * @param bytesWritten total bytes written to the terminal; output thread only
+	 */
+	public void frameRendered(long nanos, long bytesWritten) {
+		frameRender.record(nanos);
+		terminalBytesWritten = bytesWritten;
+	}
+
+	/**
+	 * @param nanos terminal and renderer creation time, on output thread start
+	 */
+	public void terminalInitialized(long nanos) {
+		terminalInitNanos = nanos;
+	}
+
+	public long getTerminalInitNanos() {
+		return terminalInitNanos;
+	}
+
+	/**
+	 * @return write latency of captured output batches, recorded by the capture writer
+	 */
+	public LatencyHistogram getCaptureWrite() {
+		return captureWrite;
+	}
+
+	@Override
+	public Map<String, Long> getEventCounts() {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (Type type : TYPES) {
+			counts.put(type.name(), events[type.ordinal()].sum());
+		}
+		return counts;
+	}
+
+	@Override
+	public Map<String, Double> getEventRates() {
+		double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+		Map<String, Double> rates = new LinkedHashMap<>();
+		for (Type type : TYPES) {
+			rates.put(type.name(), events[type.ordinal()].sum() / seconds);
+		}
+		return rates;
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	@Override
+	public int getQueueHighWaterMark() {
+		return queueHighWaterMark;
+	}
+
+	@Override
+	public long getFrameCount() {
+		return frameRender.getCount();
+	}
+
+	@Override
+	public double getFrameRenderMicrosP50() {
+		return frameRender.percentile(0.5) / 1e3;
+	}
+
+	@Override
+	public double getFrameRenderMicrosP90() {
+		return frameRender.percentile(0.9) / 1e3;
+	}
+
+	@Override
+	public double getFrameRenderMicrosP99() {
+		return frameRender.percentile(0.99) / 1e3;
+	}
+
+	@Override
+	public long getTerminalBytesWritten() {
+		return terminalBytesWritten;
+	}
+
+	@Override
+	public double getTerminalInitMillis() {
+		return terminalInitNanos / 1e6;
+	}
+
+	@Override
+	public double getCaptureWriteMicrosP50() {
+		return captureWrite.percentile(0.5) / 1e3;
+	}
+
+	@Override
+	public double getCaptureWriteMicrosP99() {
+		return captureWrite.percentile(0.99) / 1e3;
+	}
+
+	/**
+	 * Write an OpenMetrics text exposition of the metrics.
+	 */
+	public void writeOpenMetrics(Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("# TYPE maven_pretty_events counter\n");
+			writer.write("# HELP maven_pretty_events Build events received.\n");
+			for (Type type : TYPES) {
+				writer.write(String.format("maven_pretty_events_total{type=\"%s\"} %d\n", type.name(), events[type.ordinal()].sum()));
+			}
+			writer.write("# TYPE maven_pretty_queue_depth gauge\n");
+			writer.write(String.format("maven_pretty_queue_depth %d\n", queueDepth));
+			writer.write("# TYPE maven_pretty_queue_high_water_mark gauge\n");
+			writer.write(String.format("maven_pretty_queue_high_water_mark %d\n", queueHighWaterMark));
+			writeSummary(writer, "maven_pretty_frame_render_seconds", frameRender);
+			writer.write("# TYPE maven_pretty_terminal_bytes counter\n");
+			writer.write(String.format("maven_pretty_terminal_bytes_total %d\n", terminalBytesWritten));
+			writer.write("# TYPE maven_pretty_terminal_init_seconds gauge\n");
+			writer.write(String.format(Locale.ROOT, "maven_pretty_terminal_init_seconds %.6f\n", terminalInitNanos / 1e9));
+			writeSummary(writer, "maven_pretty_capture_write_seconds", captureWrite);
+			writer.write("# EOF\n");
+		}
+	}
+
+	private static void writeSummary(Writer writer, String name, LatencyHistogram histogram) throws IOException {
+		writer.write(String.format("# TYPE %s summary\n", name));
+		for (double quantile : new double[] { 0.5, 0.9, 0.99 }) {
+			writer.write(String.format(Locale.ROOT, "%s{quantile=\"%s\"} %.6f\n", name, quantile, histogram.percentile(quantile) / 1e9));
+		}
+		writer.write(String.format(Locale.ROOT, "%s_sum %.6f\n", name, histogram.getSum() / 1e9));
+		writer.write(String.format("%s_count %d\n", name, histogram.getCount()));
+	}
+}
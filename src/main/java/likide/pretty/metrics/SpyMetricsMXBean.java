@@ -0,0 +1,42 @@
+package likide.pretty.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link SpyMetrics}; registered as <code>likide.pretty:type=PrettyEventSpy</code>.
+ */
+public interface SpyMetricsMXBean {
+
+	/**
+	 * @return received build event count by event type
+	 */
+	Map<String, Long> getEventCounts();
+
+	/**
+	 * @return received build events per second by event type, since extension start
+	 */
+	Map<String, Double> getEventRates();
+
+	int getQueueDepth();
+
+	int getQueueHighWaterMark();
+
+	long getFrameCount();
+
+	double getFrameRenderMicrosP50();
+
+	double getFrameRenderMicrosP90();
+
+	double getFrameRenderMicrosP99();
+
+	long getTerminalBytesWritten();
+
+	/**
+	 * @return terminal initialization time, on output start
+	 */
+	double getTerminalInitMillis();
+
+	double getCaptureWriteMicrosP50();
+
+	double getCaptureWriteMicrosP99();
+}
@@ -1,45 +1,158 @@
 package likide.pretty.model;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.apache.maven.execution.ExecutionEvent.Type;
 import org.apache.maven.project.MavenProject;
 
 import likide.pretty.Constants;
+import likide.pretty.TermString;
 
+/**
+ * Build status of a project. Once finished, a project is {@link #compact()}ed to its coordinates and final line.
+ */
 public class ProjectStatus {
-	private final MavenProject mavenProject;
-	private final Status status;
-	private final List<ProjectStep> previousSteps;
-	private final ProjectStep currentStep;
+	private static final String FAILED_GLYPH = Constants.TERM_ESCAPE + Constants.TERM_BOLD_RED + "✘" + Constants.TERM_RESET;
+	private static final String PLANNED_GLYPH = Constants.TERM_ESCAPE + Constants.TERM_BOLD_BLUE + "⧖" + Constants.TERM_RESET;
+	private static final String SUCCESS_GLYPH = Constants.TERM_ESCAPE + Constants.TERM_BOLD_GREEN + "✔" + Constants.TERM_RESET;
+	private static final String[] SPINNER_GLYPHS = {
+			Constants.TERM_ESCAPE + Constants.TERM_BOLD_YELLOW + "․" + Constants.TERM_RESET,
+			Constants.TERM_ESCAPE + Constants.TERM_BOLD_YELLOW + "‥" + Constants.TERM_RESET,
+			Constants.TERM_ESCAPE + Constants.TERM_BOLD_YELLOW + "…" + Constants.TERM_RESET };
+
+	private final String groupId;
+	private final String artifactId;
+	private final String version;
+	private final String namePrefix;
+	// null once compacted
+	private final StepHistory history;
+	private Status status = Status.PLANNED;
+	private ProjectStep currentStep;
+	private int testClasses = 0;
+	private int testsRun = 0;
+	private int testsFailed = 0;
+	// rendered test counts, appended to current phase of a test mojo
+	private String tests = "";
+	// rendered line by spinner step, built on first use after a change
+	private final String[] lines;
+	// rendered line by spinner step, truncated to fittedWidth
+	private final String[] fittedLines;
+	private int fittedWidth = -1;
 	
-	public ProjectStatus(ProjectStatus currentStatus, ProjectStatus lastStatus) {
-		this(currentStatus.mavenProject, currentStatus.status, currentStatus.currentStep, lastStatus);
+	public ProjectStatus(MavenProject mavenProject) {
+		this(mavenProject.getGroupId(), mavenProject.getArtifactId(), mavenProject.getVersion());
+	}
+
+	public ProjectStatus(String groupId, String artifactId, String version) {
+		this.groupId = ProjectStep.intern(groupId);
+		this.artifactId = ProjectStep.intern(artifactId);
+		this.version = ProjectStep.intern(version);
+		this.namePrefix = " " + artifactId + ": ";
+		this.history = new StepHistory();
+		this.lines = new String[SPINNER_GLYPHS.length];
+		this.fittedLines = new String[SPINNER_GLYPHS.length];
+	}
+
+	private ProjectStatus(ProjectStatus finished) {
+		this.groupId = finished.groupId;
+		this.artifactId = finished.artifactId;
+		this.version = finished.version;
+		this.namePrefix = null;
+		this.history = null;
+		this.status = finished.status;
+		this.lines = new String[] { finished.toString(0) };
+		this.fittedLines = new String[1];
+	}
+
+	/**
+	 * @return immutable copy of a finished project, keeping only coordinates, status and rendered line
+	 */
+	public ProjectStatus compact() {
+		return new ProjectStatus(this);
+	}
+
+	public boolean isCompact() {
+		return history == null;
 	}
 	
-	public ProjectStatus(MavenProject mavenProject, Status status, ProjectStep currentStep, ProjectStatus lastStatus) {
-		this.mavenProject = mavenProject;
+	/**
+	 * Move to a new status. The current step is appended to the history if it is completed.
+	 */
+	public void update(Status status, ProjectStep currentStep) {
+		if (isCompact()) {
+			throw new IllegalStateException(artifactId + " is compacted");
+		}
+		if (this.currentStep != null && !Type.MojoStarted.equals(this.currentStep.getStatus())) {
+			history.append(this.currentStep, phaseOrPlugin(this.currentStep));
+		}
 		this.status = status;
 		this.currentStep = currentStep;
-		if (lastStatus != null) {
-			List<ProjectStep> steps = new ArrayList<>();
-			if(lastStatus.previousSteps != null && !lastStatus.previousSteps.isEmpty()) {
-				steps.addAll(lastStatus.previousSteps);
-			}
-			if (lastStatus.currentStep != null && !Type.MojoStarted.equals(lastStatus.currentStep.getStatus())) {
-				steps.add(lastStatus.currentStep);
-			}
-			previousSteps = List.copyOf(steps);
-		} else {
-			previousSteps = null;
-		}
+		Arrays.fill(lines, null);
+		Arrays.fill(fittedLines, null);
 	}
 	
+	/**
+	 * Update live test counts of the building project; the line is rendered again only if they changed.
+	 */
+	public void tests(int classes, int run, int failed) {
+		if (isCompact() || (classes == testClasses && run == testsRun && failed == testsFailed)) {
+			return;
+		}
+		testClasses = classes;
+		testsRun = run;
+		testsFailed = failed;
+		StringBuilder tests = new StringBuilder();
+		tests.append(' ').append(Constants.TERM_ESCAPE).append(Constants.TERM_GREY)
+				.append(classes).append(classes == 1 ? " class, " : " classes, ").append(run).append(run == 1 ? " test" : " tests")
+				.append(Constants.TERM_RESET);
+		if (failed > 0) {
+			tests.append(Constants.TERM_ESCAPE).append(Constants.TERM_GREY).append(", ").append(Constants.TERM_RESET)
+					.append(Constants.TERM_ESCAPE).append(Constants.TERM_BOLD_RED).append(failed).append(" failed").append(Constants.TERM_RESET);
+		}
+		this.tests = tests.toString();
+		Arrays.fill(lines, null);
+		Arrays.fill(fittedLines, null);
+	}
+
+	/**
+	 * Rendered line, cached until next {@link #update(Status, ProjectStep)}: when only the spinner moves, the line
+	 * of the spinner step is reused.
+	 */
 	public String toString(int clock) {
-		return String.format("%s %s: %s", status(clock), mavenProject.getArtifactId(), lastPhases(clock));
+		int step = lineStep(clock);
+		String line = lines[step];
+		if (line == null) {
+			line = status(clock) + namePrefix + lastPhases(clock);
+			lines[step] = line;
+		}
+		return line;
+	}
+
+	/**
+	 * Rendered line truncated to <code>width</code> columns with a <code>&gt;</code> marker, cached like
+	 * {@link #toString(int)}, so that an unchanged line is not measured again.
+	 */
+	public String toString(int clock, int width) {
+		if (width != fittedWidth) {
+			Arrays.fill(fittedLines, null);
+			fittedWidth = width;
+		}
+		int step = lineStep(clock);
+		String fitted = fittedLines[step];
+		if (fitted == null) {
+			String line = toString(clock);
+			StringBuilder truncated = new StringBuilder(line.length());
+			fitted = TermString.ellipsize(line, width, ">", 1, truncated) ? truncated.toString() : line;
+			fittedLines[step] = fitted;
+		}
+		return fitted;
+	}
+
+	private int lineStep(int clock) {
+		return Status.BUILDING.equals(status) && !isCompact() ? spinnerStep(clock) : 0;
 	}
 	
 	public String status(int clock) {
@@ -47,82 +160,86 @@ public class ProjectStatus {
 		case BUILDING:
 			return dot(clock);
 		case FAILED:
-			return Constants.TERM_ESCAPE + Constants.TERM_BOLD_RED + "✘" + Constants.TERM_RESET;
+			return FAILED_GLYPH;
 		case PLANNED:
-			return Constants.TERM_ESCAPE + Constants.TERM_BOLD_BLUE + "⧖" + Constants.TERM_RESET;
+			return PLANNED_GLYPH;
 		case SUCCESS:
-			return Constants.TERM_ESCAPE + Constants.TERM_BOLD_GREEN + "✔" + Constants.TERM_RESET;
+			return SUCCESS_GLYPH;
 		default:
 			throw new IllegalStateException();
 		}
 	}
 	
 	public String dot(int clock) {
-		switch ((clock/10)%3) {
-		case 0:
-			return Constants.TERM_ESCAPE + Constants.TERM_BOLD_YELLOW + "․" + Constants.TERM_RESET;
-		case 1:
-			return Constants.TERM_ESCAPE + Constants.TERM_BOLD_YELLOW + "‥" + Constants.TERM_RESET;
-		case 2:
-			return Constants.TERM_ESCAPE + Constants.TERM_BOLD_YELLOW + "…" + Constants.TERM_RESET;
-		default:
-			throw new IllegalStateException();
-		}
+		return SPINNER_GLYPHS[spinnerStep(clock)];
+	}
+
+	private static int spinnerStep(int clock) {
+		return (clock / 10) % SPINNER_GLYPHS.length;
 	}
 	
 	public String lastSteps() {
-		if (previousSteps == null) {
+		if (isCompact() || history.isEmpty()) {
 			return "";
 		}
-		return previousSteps.stream().map(i -> i.getGoal()).collect(Collectors.joining(", ", "(", ")")) + " ";
+		return history.getSteps().stream().map(i -> i.getGoal()).collect(Collectors.joining(", ", "(", ")")) + " ";
 	}
 	
 	public String lastPhases(int clock) {
-		if (previousSteps == null) {
-			return "";
+		if (isCompact()) {
+			throw new IllegalStateException(artifactId + " is compacted");
 		}
-		List<String> phases = previousSteps.stream().map(i -> phaseOrPlugin(i)).distinct().collect(Collectors.toList());
+		List<String> phases = history.getPhases();
 		if (Status.SUCCESS.equals(status)) {
 			if (phases.isEmpty()) {
 				return "";
 			} else if (phases.size() == 1) {
 				return Constants.TERM_ESCAPE + Constants.TERM_GREY + phases.get(0) + Constants.TERM_RESET;
 			} else {
-				return String.format(Constants.TERM_ESCAPE + Constants.TERM_GREY + "%s … %s", phases.get(0), phases.get(phases.size() - 1) + Constants.TERM_RESET);
+				return Constants.TERM_ESCAPE + Constants.TERM_GREY + phases.get(0) + " … " + phases.get(phases.size() - 1) + Constants.TERM_RESET;
 			}
 		}
-		StringBuilder sb = new StringBuilder();
-		sb.append(phases.stream().collect(Collectors.joining(", ")));
+		String joinedPhases = history.getJoinedPhases();
 		if (currentStep != null && !phases.isEmpty()) {
-			String lastBeforeCurrent = phases.stream().skip(phases.size() - 1l).findFirst().orElse(null);
-			if (lastBeforeCurrent != null && lastBeforeCurrent.equals(currentStep.getPhase())) {
+			if (phases.get(phases.size() - 1).equals(currentStep.getPhase())) {
 				// last phase is still performing
-				sb.append(dot(clock));
-			} else if (lastBeforeCurrent != null && !lastBeforeCurrent.equals(currentStep.getPhase())) {
-				sb.append(", " + currentStep.getPhase() + dot(clock));
-			} else if (lastBeforeCurrent == null) {
-				sb.append(currentStep.getPhase() + dot(clock));
+				return joinedPhases + dot(clock) + currentTests();
+			} else {
+				return joinedPhases + ", " + currentStep.getPhase() + dot(clock) + currentTests();
 			}
 		} else if (currentStep != null) {
-			sb.append(currentStep.getPhase() + dot(clock));
+			return currentStep.getPhase() + dot(clock) + currentTests();
 		}
-		return sb.toString();
+		return joinedPhases;
 	}
 	
+	/**
+	 * @return rendered test counts if the current step runs tests, counts of previous test mojos are not shown by
+	 *         later steps
+	 */
+	private String currentTests() {
+		String plugin = currentStep.getArtifactId();
+		return "maven-surefire-plugin".equals(plugin) || "maven-failsafe-plugin".equals(plugin) ? tests : "";
+	}
+
 	public String phaseOrPlugin(ProjectStep execution) {
-		return Optional.ofNullable(execution.getPhase()).orElseGet(() -> shortGoal(execution));
+		return execution.getPhase() != null ? execution.getPhase() : shortGoal(execution);
 	}
 	
 	public String shortGoal(ProjectStep execution) {
-		if (execution.getArtifactId().startsWith("maven-") && execution.getArtifactId().endsWith("-plugin")) {
-			return String.format("%s:%s", execution.getArtifactId().substring("maven-".length(), execution.getArtifactId().length() - "-plugin".length()), execution.getGoal());
-		} else {
-			return String.format("%s:%s", execution.getArtifactId(), execution.getGoal());
-		}
+		return ShortNames.shortGoal(execution.getArtifactId(), execution.getGoal());
+	}
+
+	public String getGroupId() {
+		return groupId;
+	}
+
+	public String getArtifactId() {
+		return artifactId;
 	}
 
-	public MavenProject getMavenProject() {
-		return mavenProject;
+	public String getVersion() {
+		return version;
 	}
 
 	public Status getStatus() {
@@ -130,10 +247,10 @@ public class ProjectStatus {
 	}
 
 	public List<ProjectStep> getPreviousSteps() {
-		return previousSteps;
+		return isCompact() ? Collections.emptyList() : history.getSteps();
 	}
 
 	public ProjectStep getCurrentStep() {
 		return currentStep;
 	}
-}
\ No newline at end of file
+}
@@ -3,26 +3,54 @@ package likide.pretty.model;
 import org.apache.maven.execution.ExecutionEvent.Type;
 import org.apache.maven.plugin.MojoExecution;
 
+/**
+ * Immutable mojo execution step. Coordinates are interned and no reference to the {@link MojoExecution} is kept, so
+ * that the step history does not retain plugin descriptors and configurations.
+ */
 public class ProjectStep {
-	private final String key;
 	private final String executionId;
 	private final Type status;
 	private final String goal;
 	private final String phase;
 	private final String groupId;
 	private final String artifactId;
+	private final String version;
+	// built on first use
+	private String key;
+	// monotonic (System.nanoTime()) times, -1 if unknown
+	private final long startTime;
+	private final long endTime;
 	
 	public ProjectStep(MojoExecution execution, Type status) {
-		this.key = execution.toString();
-		this.executionId = execution.getExecutionId();
+		this(execution, status, -1, -1);
+	}
+
+	/**
+	 * @param endTime -1 if step is not completed
+	 */
+	public ProjectStep(MojoExecution execution, Type status, long startTime, long endTime) {
+		this.executionId = intern(execution.getExecutionId());
 		this.status = status;
-		this.goal = execution.getGoal();
-		this.phase = execution.getLifecyclePhase();
-		this.groupId = execution.getGroupId();
-		this.artifactId = execution.getArtifactId();
+		this.goal = intern(execution.getGoal());
+		this.phase = intern(execution.getLifecyclePhase());
+		this.groupId = intern(execution.getGroupId());
+		this.artifactId = intern(execution.getArtifactId());
+		this.version = intern(execution.getVersion());
+		this.startTime = startTime;
+		this.endTime = endTime;
 	}
 
+	static String intern(String value) {
+		return value != null ? value.intern() : null;
+	}
+
+	/**
+	 * @return <code>groupId:artifactId:version:goal {execution: executionId}</code>
+	 */
 	public String getKey() {
+		if (key == null) {
+			key = groupId + ":" + artifactId + ":" + version + ":" + goal + " {execution: " + executionId + "}";
+		}
 		return key;
 	}
 
@@ -49,4 +77,16 @@ public class ProjectStep {
 	public String getArtifactId() {
 		return artifactId;
 	}
-}
\ No newline at end of file
+
+	public String getVersion() {
+		return version;
+	}
+
+	public long getStartTime() {
+		return startTime;
+	}
+
+	public long getEndTime() {
+		return endTime;
+	}
+}
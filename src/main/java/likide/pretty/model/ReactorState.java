@@ -0,0 +1,224 @@
+package likide.pretty.model;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Per-project build state, indexed by a dense project id assigned in session project order.
+ *
+ * {@link #id(MavenProject)} is read-only and may be called from any thread once the instance is published; all other
+ * methods are for the output thread only.
+ */
+public class ReactorState {
+	private static final Status[] STATUSES = Status.values();
+
+	private final Map<MavenProject, Integer> ids;
+	private final ProjectStatus[] projects;
+	// direct upstream / downstream project ids
+	private final int[][] upstreams;
+	private final int[][] downstreams;
+	// upstream projects not done yet
+	private final int[] pendingUpstreams;
+	private final int threads;
+	// planned projects not started, without / with pending upstream
+	private int ready;
+	private int blocked;
+	private final byte[] statuses;
+	private final int[] counts = new int[STATUSES.length];
+	private final BitSet building = new BitSet();
+	// projects started and not finished: each holds a builder thread
+	private final BitSet started = new BitSet();
+	private int busy;
+
+	public ReactorState(List<MavenProject> sessionProjects) {
+		this(sessionProjects, null, 1);
+	}
+
+	/**
+	 * @param graph dependency graph of the session projects; without graph, projects have no upstream
+	 * @param threads builder thread count
+	 */
+	public ReactorState(List<MavenProject> sessionProjects, ProjectDependencyGraph graph, int threads) {
+		this.threads = threads;
+		int size = sessionProjects.size();
+		ids = new IdentityHashMap<>(size);
+		projects = new ProjectStatus[size];
+		statuses = new byte[size];
+		for (int i = 0; i < size; i++) {
+			MavenProject project = sessionProjects.get(i);
+			ids.put(project, i);
+			projects[i] = new ProjectStatus(project);
+			statuses[i] = (byte) Status.PLANNED.ordinal();
+		}
+		counts[Status.PLANNED.ordinal()] = size;
+		upstreams = new int[size][];
+		for (int i = 0; i < size; i++) {
+			List<MavenProject> upstreamProjects = graph != null ? graph.getUpstreamProjects(sessionProjects.get(i), false) : List.of();
+			upstreams[i] = upstreamProjects.stream().mapToInt(this::id).filter(id -> id != -1).distinct().toArray();
+		}
+		int[] downstreamCounts = new int[size];
+		for (int[] upstream : upstreams) {
+			for (int id : upstream) {
+				downstreamCounts[id]++;
+			}
+		}
+		downstreams = new int[size][];
+		pendingUpstreams = new int[size];
+		for (int i = 0; i < size; i++) {
+			downstreams[i] = new int[downstreamCounts[i]];
+			pendingUpstreams[i] = upstreams[i].length;
+			addWaiting(i);
+		}
+		for (int i = 0; i < size; i++) {
+			for (int id : upstreams[i]) {
+				downstreams[id][--downstreamCounts[id]] = i;
+			}
+		}
+	}
+
+	/**
+	 * @return project id, or -1 if project is not part of the session
+	 */
+	public int id(MavenProject project) {
+		Integer id = ids.get(project);
+		return id != null ? id : -1;
+	}
+
+	public int size() {
+		return projects.length;
+	}
+
+	/**
+	 * Finished projects are compacted: their step history is released.
+	 */
+	public ProjectStatus update(int id, Status status, ProjectStep step) {
+		ProjectStatus project = projects[id];
+		if (project.isCompact()) {
+			// finished project is built again
+			project = new ProjectStatus(project.getGroupId(), project.getArtifactId(), project.getVersion());
+		}
+		project.update(status, step);
+		if (status.isFinished()) {
+			project = project.compact();
+		}
+		projects[id] = project;
+		Status previous = STATUSES[statuses[id]];
+		removeWaiting(id);
+		counts[statuses[id]]--;
+		counts[status.ordinal()]++;
+		statuses[id] = (byte) status.ordinal();
+		building.set(id, Status.BUILDING.equals(status));
+		if (isDone(status) && started.get(id)) {
+			started.clear(id);
+			busy--;
+		}
+		addWaiting(id);
+		if (!isDone(previous) && isDone(status)) {
+			for (int downstream : downstreams[id]) {
+				removeWaiting(downstream);
+				pendingUpstreams[downstream]--;
+				addWaiting(downstream);
+			}
+		}
+		return project;
+	}
+
+	/**
+	 * Project taken by a builder thread, on project start or, if missed, on its first mojo event; the thread is busy
+	 * until the project is finished.
+	 */
+	public void started(int id) {
+		if (started.get(id)) {
+			return;
+		}
+		removeWaiting(id);
+		started.set(id);
+		busy++;
+		addWaiting(id);
+	}
+
+	private void addWaiting(int id) {
+		if (Status.PLANNED.equals(status(id)) && !started.get(id)) {
+			if (pendingUpstreams[id] == 0) {
+				ready++;
+			} else {
+				blocked++;
+			}
+		}
+	}
+
+	private void removeWaiting(int id) {
+		if (Status.PLANNED.equals(status(id)) && !started.get(id)) {
+			if (pendingUpstreams[id] == 0) {
+				ready--;
+			} else {
+				blocked--;
+			}
+		}
+	}
+
+	private static boolean isDone(Status status) {
+		return status.isFinished() || Status.SKIPPED.equals(status);
+	}
+
+	public Status status(int id) {
+		return STATUSES[statuses[id]];
+	}
+
+	public int count(Status status) {
+		return counts[status.ordinal()];
+	}
+
+	/**
+	 * @return projects started and not finished, that is busy builder threads
+	 */
+	public int busy() {
+		return busy;
+	}
+
+	/**
+	 * @return planned projects whose upstream projects are all done: they wait for a builder thread
+	 */
+	public int ready() {
+		return ready;
+	}
+
+	/**
+	 * @return planned projects waiting for an upstream project
+	 */
+	public int blocked() {
+		return blocked;
+	}
+
+	/**
+	 * @return builder thread count of the session
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Iterate building projects in id order: <code>for (int id = nextBuilding(0); id != -1; id = nextBuilding(id + 1))</code>
+	 *
+	 * @return next building project id from <code>id</code> (inclusive), or -1
+	 */
+	public int nextBuilding(int id) {
+		return building.nextSetBit(id);
+	}
+
+	/**
+	 * @return ids of session projects <code>id</code> directly depends on
+	 */
+	public int[] upstream(int id) {
+		return upstreams[id];
+	}
+
+	public ProjectStatus project(int id) {
+		return projects[id];
+	}
+}
@@ -0,0 +1,30 @@
+package likide.pretty.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned short plugin goal names: <code>maven-compiler-plugin</code> <code>compile</code> is
+ * <code>compiler:compile</code>. Names are computed once per plugin and goal.
+ */
+public final class ShortNames {
+	private static final Map<String, Map<String, String>> SHORT_GOALS = new ConcurrentHashMap<>();
+
+	private ShortNames() {
+	}
+
+	public static String shortGoal(String pluginArtifactId, String goal) {
+		return SHORT_GOALS.computeIfAbsent(pluginArtifactId, artifactId -> new ConcurrentHashMap<>())
+				.computeIfAbsent(goal, g -> (shortPlugin(pluginArtifactId) + ":" + g).intern());
+	}
+
+	/**
+	 * @return plugin artifactId without <code>maven-</code> prefix and <code>-plugin</code> suffix
+	 */
+	public static String shortPlugin(String pluginArtifactId) {
+		if (pluginArtifactId.startsWith("maven-") && pluginArtifactId.endsWith("-plugin")) {
+			return pluginArtifactId.substring("maven-".length(), pluginArtifactId.length() - "-plugin".length());
+		}
+		return pluginArtifactId;
+	}
+}
@@ -0,0 +1,47 @@
+package likide.pretty.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only log of the completed steps of a project. Distinct phases and their joined representation are
+ * maintained on append so that rendering never rescans the log.
+ */
+public class StepHistory {
+	private final List<ProjectStep> steps = new ArrayList<>();
+	private final List<String> phases = new ArrayList<>();
+	private final Set<String> knownPhases = new HashSet<>();
+	private final StringBuilder joinedPhases = new StringBuilder();
+	private String joinedPhasesValue = "";
+
+	public void append(ProjectStep step, String phase) {
+		steps.add(step);
+		if (knownPhases.add(phase)) {
+			if (!phases.isEmpty()) {
+				joinedPhases.append(", ");
+			}
+			joinedPhases.append(phase);
+			joinedPhasesValue = joinedPhases.toString();
+			phases.add(phase);
+		}
+	}
+
+	public List<ProjectStep> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	public List<String> getPhases() {
+		return Collections.unmodifiableList(phases);
+	}
+
+	public String getJoinedPhases() {
+		return joinedPhasesValue;
+	}
+
+	public boolean isEmpty() {
+		return steps.isEmpty();
+	}
+}
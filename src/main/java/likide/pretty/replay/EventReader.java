@@ -0,0 +1,236 @@
+package likide.pretty.replay;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import likide.pretty.model.ReactorState;
+
+/**
+ * Read an event log written by {@link EventRecorder}. Projects and mojo executions are rebuilt as plain Maven model
+ * objects, so that recorded events can be applied as live ones.
+ */
+public class EventReader implements Closeable {
+
+	public interface Listener {
+		/**
+		 * @param time session start time of the recording
+		 */
+		void session(ReactorState state, long time) throws IOException;
+
+		/**
+		 * @param time offset from session start
+		 */
+		void event(Type type, int project, MojoExecution execution, long time, long thread) throws IOException;
+	}
+
+	private final DataInputStream input;
+	// recorded type ordinal to type, by name; null for types unknown to this Maven version
+	private final Type[] types;
+	private final List<MojoExecution> mojos = new ArrayList<>();
+
+	public EventReader(Path file) throws IOException {
+		input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+		if (input.readInt() != EventRecorder.MAGIC || input.readInt() != EventRecorder.VERSION) {
+			input.close();
+			throw new IOException(String.format("%s is not an event log", file));
+		}
+		types = new Type[input.readShort()];
+		for (int i = 0; i < types.length; i++) {
+			String name = input.readUTF();
+			for (Type type : Type.values()) {
+				if (type.name().equals(name)) {
+					types[i] = type;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read all records, in recording order.
+	 */
+	public void read(Listener listener) throws IOException {
+		while (true) {
+			int tag;
+			try {
+				tag = input.readByte();
+			} catch (EOFException e) {
+				return;
+			}
+			switch (tag) {
+			case EventRecorder.SESSION:
+				long time = input.readLong();
+				mojos.clear();
+				listener.session(readSession(), time);
+				break;
+			case EventRecorder.MOJO:
+				mojos.add(readMojo());
+				break;
+			case EventRecorder.EVENT:
+				long offset = input.readLong();
+				long thread = input.readLong();
+				Type type = types[input.readByte()];
+				int project = input.readInt();
+				int mojo = input.readInt();
+				if (type != null) {
+					listener.event(type, project, mojo != -1 ? mojos.get(mojo) : null, offset, thread);
+				}
+				break;
+			default:
+				throw new IOException(String.format("Unexpected record %d", tag));
+			}
+		}
+	}
+
+	private ReactorState readSession() throws IOException {
+		int threads = input.readInt();
+		int size = input.readInt();
+		List<MavenProject> projects = new ArrayList<>(size);
+		int[][] upstreams = new int[size][];
+		for (int id = 0; id < size; id++) {
+			MavenProject project = new MavenProject();
+			project.setGroupId(readString());
+			project.setArtifactId(readString());
+			project.setVersion(readString());
+			projects.add(project);
+			upstreams[id] = new int[input.readInt()];
+			for (int i = 0; i < upstreams[id].length; i++) {
+				upstreams[id][i] = input.readInt();
+			}
+		}
+		return state(projects, upstreams, threads);
+	}
+
+	/**
+	 * @param upstreams upstream project ids by project id
+	 * @return state of a session rebuilt from its projects
+	 */
+	public static ReactorState state(List<MavenProject> projects, int[][] upstreams, int threads) {
+		return new ReactorState(projects, graph(projects, upstreams), threads);
+	}
+
+	/**
+	 * @param upstreams direct upstream project ids by project id
+	 * @return dependency graph of recorded projects
+	 */
+	public static ProjectDependencyGraph graph(List<MavenProject> projects, int[][] upstreams) {
+		return new RecordedGraph(projects, upstreams);
+	}
+
+	private MojoExecution readMojo() throws IOException {
+		Plugin plugin = new Plugin();
+		plugin.setGroupId(readString());
+		plugin.setArtifactId(readString());
+		plugin.setVersion(readString());
+		String goal = readString();
+		MojoExecution execution = new MojoExecution(plugin, goal, readString());
+		execution.setLifecyclePhase(readString());
+		return execution;
+	}
+
+	private String readString() throws IOException {
+		String value = input.readUTF();
+		return value.isEmpty() ? null : value;
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+
+	/**
+	 * Dependency graph of recorded projects, in recorded (reactor) order.
+	 */
+	private static class RecordedGraph implements ProjectDependencyGraph {
+		private final List<MavenProject> projects;
+		private final Map<MavenProject, Integer> ids = new IdentityHashMap<>();
+		private final int[][] upstreams;
+		private final int[][] downstreams;
+
+		RecordedGraph(List<MavenProject> projects, int[][] upstreams) {
+			this.projects = projects;
+			this.upstreams = upstreams;
+			for (int id = 0; id < projects.size(); id++) {
+				ids.put(projects.get(id), id);
+			}
+			int[] downstreamCounts = new int[upstreams.length];
+			for (int[] upstream : upstreams) {
+				for (int id : upstream) {
+					downstreamCounts[id]++;
+				}
+			}
+			downstreams = new int[upstreams.length][];
+			for (int id = 0; id < upstreams.length; id++) {
+				downstreams[id] = new int[downstreamCounts[id]];
+				downstreamCounts[id] = 0;
+			}
+			for (int id = 0; id < upstreams.length; id++) {
+				for (int upstream : upstreams[id]) {
+					downstreams[upstream][downstreamCounts[upstream]++] = id;
+				}
+			}
+		}
+
+		@Override
+		public List<MavenProject> getAllProjects() {
+			return projects;
+		}
+
+		@Override
+		public List<MavenProject> getSortedProjects() {
+			return projects;
+		}
+
+		@Override
+		public List<MavenProject> getDownstreamProjects(MavenProject project, boolean transitive) {
+			return related(downstreams, project, transitive);
+		}
+
+		@Override
+		public List<MavenProject> getUpstreamProjects(MavenProject project, boolean transitive) {
+			return related(upstreams, project, transitive);
+		}
+
+		/**
+		 * @return projects related to <code>project</code> by <code>edges</code>, transitively or not, in reactor order
+		 */
+		private List<MavenProject> related(int[][] edges, MavenProject project, boolean transitive) {
+			boolean[] related = new boolean[projects.size()];
+			Deque<Integer> pending = new ArrayDeque<>();
+			pending.add(ids.get(project));
+			while (!pending.isEmpty()) {
+				for (int id : edges[pending.poll()]) {
+					if (!related[id]) {
+						related[id] = true;
+						if (transitive) {
+							pending.add(id);
+						}
+					}
+				}
+			}
+			List<MavenProject> relatedProjects = new ArrayList<>();
+			for (int id = 0; id < related.length; id++) {
+				if (related[id]) {
+					relatedProjects.add(projects.get(id));
+				}
+			}
+			return relatedProjects;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package likide.pretty.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.plugin.MojoExecution;
+
+import likide.pretty.model.ProjectStatus;
+import likide.pretty.model.ReactorState;
+
+/**
+ * Write build events to a compact binary log, read back by {@link EventReader}. Single-threaded: events are recorded
+ * by the output thread, as they are applied.
+ *
+ * <pre>
+ * header:  magic (int), version (int), event type names (short count, UTF each)
+ * session: SESSION (byte), time (long), threads (int), project count (int),
+ *          per project groupId, artifactId, version (UTF), upstream ids (int count, int each)
+ * mojo:    MOJO (byte), groupId, artifactId, version, goal, executionId, phase (UTF, "" for null); ids are sequential
+ * event:   EVENT (byte), time offset from session (long), thread (long), type (byte), project (int), mojo id or -1 (int)
+ * </pre>
+ */
+public class EventRecorder implements Closeable {
+	static final int MAGIC = 0x4d505256;
+	static final int VERSION = 1;
+	static final byte SESSION = 1;
+	static final byte MOJO = 2;
+	static final byte EVENT = 3;
+
+	private final DataOutputStream output;
+	// mojo executions are written once
+	private final Map<MojoExecution, Integer> mojos = new IdentityHashMap<>();
+	private long sessionTime = 0;
+
+	public EventRecorder(Path file) throws IOException {
+		output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		Type[] types = Type.values();
+		output.writeShort(types.length);
+		for (Type type : types) {
+			output.writeUTF(type.name());
+		}
+	}
+
+	public void session(ReactorState state, long time) throws IOException {
+		sessionTime = time;
+		mojos.clear();
+		output.writeByte(SESSION);
+		output.writeLong(time);
+		output.writeInt(state.getThreads());
+		output.writeInt(state.size());
+		for (int id = 0; id < state.size(); id++) {
+			ProjectStatus project = state.project(id);
+			writeString(project.getGroupId());
+			writeString(project.getArtifactId());
+			writeString(project.getVersion());
+			int[] upstream = state.upstream(id);
+			output.writeInt(upstream.length);
+			for (int upstreamId : upstream) {
+				output.writeInt(upstreamId);
+			}
+		}
+	}
+
+	public void event(Type type, int project, MojoExecution execution, long time, long thread) throws IOException {
+		int mojo = -1;
+		if (execution != null) {
+			Integer id = mojos.get(execution);
+			if (id == null) {
+				id = mojos.size();
+				mojos.put(execution, id);
+				output.writeByte(MOJO);
+				writeString(execution.getGroupId());
+				writeString(execution.getArtifactId());
+				writeString(execution.getVersion());
+				writeString(execution.getGoal());
+				writeString(execution.getExecutionId());
+				writeString(execution.getLifecyclePhase());
+			}
+			mojo = id;
+		}
+		output.writeByte(EVENT);
+		output.writeLong(time - sessionTime);
+		output.writeLong(thread);
+		output.writeByte(type.ordinal());
+		output.writeInt(project);
+		output.writeInt(mojo);
+	}
+
+	private void writeString(String value) throws IOException {
+		output.writeUTF(value != null ? value : "");
+	}
+
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
@@ -0,0 +1,306 @@
+package likide.pretty.status;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.plugin.MojoExecution;
+
+import likide.pretty.model.ProjectStatus;
+import likide.pretty.model.ProjectStep;
+import likide.pretty.model.ReactorState;
+import likide.pretty.model.Status;
+import likide.pretty.transfer.TransferStats.Snapshot;
+
+/**
+ * Publish build status on a loopback TCP endpoint, as line-delimited records batched per frame (see
+ * {@link StatusReader} for the format). Clients are accepted by a dedicated thread; everything else is called by the
+ * output thread. Without client, status is not encoded at all.
+ */
+public class StatusPublisher implements Closeable {
+	static final String HEADER = "maven-pretty-status 1";
+
+	private final ServerSocketChannel server;
+	private final Thread acceptor;
+	private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+	// output thread only
+	private final List<SocketChannel> clients = new ArrayList<>();
+	private final StringBuilder batch = new StringBuilder(4096);
+	private long sessionTime = 0;
+	// last published test counts by project: classes, run, failed, skipped
+	private int[] tests = new int[0];
+	private boolean transfersPublished = false;
+
+	private StatusPublisher(ServerSocketChannel server) {
+		this.server = server;
+		this.acceptor = new Thread(this::accept, "maven-pretty-status");
+		this.acceptor.setDaemon(true);
+		this.acceptor.start();
+	}
+
+	/**
+	 * @param port loopback port, 0 for any free port
+	 */
+	public static StatusPublisher open(int port) throws IOException {
+		ServerSocketChannel server = ServerSocketChannel.open();
+		try {
+			server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		} catch (IOException e) {
+			server.close();
+			throw e;
+		}
+		return new StatusPublisher(server);
+	}
+
+	public InetSocketAddress getAddress() throws IOException {
+		return (InetSocketAddress) server.getLocalAddress();
+	}
+
+	private void accept() {
+		try {
+			while (true) {
+				SocketChannel client = server.accept();
+				client.configureBlocking(false);
+				accepted.add(client);
+			}
+		} catch (ClosedChannelException e) {
+			// closed
+		} catch (IOException e) {
+			// stop accepting; connected clients are still published to
+		}
+	}
+
+	/**
+	 * Connect accepted clients, sending them the current state; called before events of a frame are applied.
+	 *
+	 * @return true if status must be published for this frame
+	 */
+	public boolean connect(ReactorState state) {
+		for (SocketChannel client = accepted.poll(); client != null; client = accepted.poll()) {
+			batch.setLength(0);
+			batch.append(HEADER).append('\n');
+			if (state.size() > 0) {
+				snapshot(state);
+			}
+			if (send(client, encode())) {
+				clients.add(client);
+			}
+			batch.setLength(0);
+		}
+		return !clients.isEmpty();
+	}
+
+	/**
+	 * @return connected clients; output thread only
+	 */
+	public int getClientCount() {
+		return clients.size();
+	}
+
+	private void snapshot(ReactorState state) {
+		appendSession(state);
+		for (int id = 0; id < state.size(); id++) {
+			ProjectStatus project = state.project(id);
+			Status status = project.getStatus();
+			if (Status.SUCCESS.equals(status)) {
+				appendEvent(Type.ProjectSucceeded, id, sessionTime, 0);
+			} else if (Status.FAILED.equals(status)) {
+				appendEvent(Type.ProjectFailed, id, sessionTime, 0);
+			} else if (Status.SKIPPED.equals(status)) {
+				appendEvent(Type.ProjectSkipped, id, sessionTime, 0);
+			} else if (Status.BUILDING.equals(status) && project.getCurrentStep() != null) {
+				ProjectStep step = project.getCurrentStep();
+				appendEvent(step.getStatus(), id, Type.MojoStarted.equals(step.getStatus()) ? step.getStartTime() : step.getEndTime(), 0);
+				appendMojo(step.getGroupId(), step.getArtifactId(), step.getVersion(), step.getGoal(), step.getExecutionId(), step.getPhase());
+			}
+			if (tests[id * 4] > 0 || tests[id * 4 + 1] > 0) {
+				appendTests(id);
+			}
+		}
+	}
+
+	/**
+	 * Start a session; called even without client, so that a client connected later receives offsets and counts of
+	 * this session.
+	 */
+	public void session(ReactorState state, long time) {
+		sessionTime = time;
+		tests = new int[state.size() * 4];
+		transfersPublished = false;
+		if (!clients.isEmpty()) {
+			appendSession(state);
+		}
+	}
+
+	private void appendSession(ReactorState state) {
+		batch.append("session ").append(state.getThreads()).append(' ').append(state.size()).append('\n');
+		for (int id = 0; id < state.size(); id++) {
+			ProjectStatus project = state.project(id);
+			batch.append("project ").append(id);
+			appendValue(project.getGroupId());
+			appendValue(project.getArtifactId());
+			appendValue(project.getVersion());
+			int[] upstream = state.upstream(id);
+			batch.append(' ');
+			if (upstream.length == 0) {
+				batch.append('-');
+			}
+			for (int i = 0; i < upstream.length; i++) {
+				batch.append(i > 0 ? "," : "").append(upstream[i]);
+			}
+			batch.append('\n');
+		}
+	}
+
+	public void event(Type type, int project, MojoExecution execution, long time, long thread) {
+		appendEvent(type, project, time, thread);
+		if (execution != null) {
+			appendMojo(execution.getGroupId(), execution.getArtifactId(), execution.getVersion(), execution.getGoal(), execution.getExecutionId(), execution.getLifecyclePhase());
+		}
+	}
+
+	private void appendEvent(Type type, int project, long time, long thread) {
+		batch.append("event ").append(type.name()).append(' ').append(project).append(' ').append(Math.max(0, time - sessionTime)).append(' ').append(thread);
+		batch.append('\n');
+	}
+
+	private void appendMojo(String groupId, String artifactId, String version, String goal, String executionId, String phase) {
+		// mojo coordinates extend the event line
+		batch.setLength(batch.length() - 1);
+		appendValue(groupId);
+		appendValue(artifactId);
+		appendValue(version);
+		appendValue(goal);
+		appendValue(executionId);
+		appendValue(phase);
+		batch.append('\n');
+	}
+
+	/**
+	 * Publish test counts of <code>project</code> if they changed.
+	 */
+	public void tests(int project, int classes, int run, int failed, int skipped) {
+		int offset = project * 4;
+		if (tests[offset] != classes || tests[offset + 1] != run || tests[offset + 2] != failed || tests[offset + 3] != skipped) {
+			tests[offset] = classes;
+			tests[offset + 1] = run;
+			tests[offset + 2] = failed;
+			tests[offset + 3] = skipped;
+			appendTests(project);
+		}
+	}
+
+	private void appendTests(int project) {
+		int offset = project * 4;
+		batch.append("tests ").append(project).append(' ').append(tests[offset]).append(' ').append(tests[offset + 1])
+				.append(' ').append(tests[offset + 2]).append(' ').append(tests[offset + 3]).append('\n');
+	}
+
+	/**
+	 * Publish live transfers, once more when none is left.
+	 */
+	public void transfers(Snapshot transfers) {
+		if (transfers.getInFlight() == 0 && !transfersPublished) {
+			return;
+		}
+		transfersPublished = transfers.getInFlight() > 0;
+		batch.append("transfers ").append(transfers.getInFlight()).append(' ').append(transfers.getThroughput());
+		if (transfers.getSlowestName() != null) {
+			appendValue(transfers.getSlowestName());
+			batch.append(' ').append(transfers.getSlowestRate());
+		}
+		batch.append('\n');
+	}
+
+	/**
+	 * Send records of the frame to all clients.
+	 */
+	public void frame(long now) {
+		batch.append("frame ").append(Math.max(0, now - sessionTime)).append('\n');
+		flush();
+	}
+
+	public void end() {
+		batch.append("end\n");
+		flush();
+	}
+
+	private void flush() {
+		if (clients.isEmpty()) {
+			batch.setLength(0);
+			return;
+		}
+		ByteBuffer bytes = encode();
+		for (Iterator<SocketChannel> iterator = clients.iterator(); iterator.hasNext();) {
+			if (!send(iterator.next(), bytes.duplicate())) {
+				iterator.remove();
+			}
+		}
+		batch.setLength(0);
+	}
+
+	private ByteBuffer encode() {
+		return StandardCharsets.UTF_8.encode(batch.toString());
+	}
+
+	/**
+	 * Write without blocking; a client that does not keep up is disconnected.
+	 *
+	 * @return false if client is disconnected
+	 */
+	private static boolean send(SocketChannel client, ByteBuffer bytes) {
+		try {
+			while (bytes.hasRemaining()) {
+				if (client.write(bytes) == 0) {
+					client.close();
+					return false;
+				}
+			}
+			return true;
+		} catch (IOException e) {
+			try {
+				client.close();
+			} catch (IOException closeException) {
+				// already broken
+			}
+			return false;
+		}
+	}
+
+	private void appendValue(String value) {
+		batch.append(' ');
+		if (value == null || value.isEmpty()) {
+			batch.append('-');
+		} else {
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				batch.append(Character.isWhitespace(c) ? '_' : c);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		server.close();
+		for (SocketChannel client : clients) {
+			client.close();
+		}
+		clients.clear();
+		// accepted meanwhile; the acceptor is stopped by server close
+		for (SocketChannel client = accepted.poll(); client != null; client = accepted.poll()) {
+			client.close();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package likide.pretty.status;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import likide.pretty.model.ReactorState;
+import likide.pretty.replay.EventReader;
+import likide.pretty.transfer.TransferStats.Snapshot;
+
+/**
+ * Read build status published by {@link StatusPublisher}. After a <code>maven-pretty-status 1</code> header, records
+ * are lines of space separated values, <code>-</code> for null:
+ *
+ * <pre>
+ * session &lt;threads&gt; &lt;projects&gt;
+ * project &lt;id&gt; &lt;groupId&gt; &lt;artifactId&gt; &lt;version&gt; &lt;upstream ids, comma separated&gt;
+ * event &lt;type&gt; &lt;project&gt; &lt;offset&gt; &lt;thread&gt; [&lt;groupId&gt; &lt;artifactId&gt; &lt;version&gt; &lt;goal&gt; &lt;execution id&gt; &lt;phase&gt;]
+ * tests &lt;project&gt; &lt;classes&gt; &lt;run&gt; &lt;failed&gt; &lt;skipped&gt;
+ * transfers &lt;in flight&gt; &lt;bytes/s&gt; [&lt;slowest name&gt; &lt;slowest bytes/s&gt;]
+ * frame &lt;offset&gt;
+ * end
+ * </pre>
+ *
+ * Offsets are nanoseconds from session start. A <code>frame</code> record ends the batch of a frame; a client
+ * connected during a session first receives a snapshot of the current state.
+ */
+public class StatusReader implements Closeable {
+
+	public interface Listener extends EventReader.Listener {
+		void tests(int project, int classes, int run, int failed, int skipped) throws IOException;
+
+		void transfers(Snapshot transfers) throws IOException;
+
+		/**
+		 * @param time offset from session start
+		 */
+		void frame(long time) throws IOException;
+
+		void end() throws IOException;
+	}
+
+	private final BufferedReader input;
+	// projects of the session being received
+	private final List<MavenProject> projects = new ArrayList<>();
+	private int[][] upstreams = new int[0][];
+	private int threads = 1;
+	private final Map<String, MojoExecution> mojos = new HashMap<>();
+
+	public StatusReader(InputStream input) throws IOException {
+		this.input = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		String header = this.input.readLine();
+		if (!StatusPublisher.HEADER.equals(header)) {
+			this.input.close();
+			throw new IOException(String.format("Unexpected status header %s", header));
+		}
+	}
+
+	/**
+	 * Read records until the publisher closes the connection.
+	 */
+	public void read(Listener listener) throws IOException {
+		for (String line = input.readLine(); line != null; line = input.readLine()) {
+			String[] values = line.split(" ");
+			switch (values[0]) {
+			case "session":
+				threads = Integer.parseInt(values[1]);
+				projects.clear();
+				upstreams = new int[Integer.parseInt(values[2])][];
+				mojos.clear();
+				if (upstreams.length == 0) {
+					listener.session(EventReader.state(projects, upstreams, threads), 0);
+				}
+				break;
+			case "project":
+				readProject(values);
+				if (projects.size() == upstreams.length) {
+					listener.session(EventReader.state(new ArrayList<>(projects), upstreams, threads), 0);
+				}
+				break;
+			case "event":
+				Type type = type(values[1]);
+				if (type != null) {
+					MojoExecution execution = values.length > 5 ? mojo(values) : null;
+					listener.event(type, Integer.parseInt(values[2]), execution, Long.parseLong(values[3]), Long.parseLong(values[4]));
+				}
+				break;
+			case "tests":
+				listener.tests(Integer.parseInt(values[1]), Integer.parseInt(values[2]), Integer.parseInt(values[3]), Integer.parseInt(values[4]),
+						Integer.parseInt(values[5]));
+				break;
+			case "transfers":
+				boolean slowest = values.length > 3;
+				listener.transfers(new Snapshot(Integer.parseInt(values[1]), Long.parseLong(values[2]), slowest ? value(values[3]) : null,
+						slowest ? Long.parseLong(values[4]) : 0));
+				break;
+			case "frame":
+				listener.frame(Long.parseLong(values[1]));
+				break;
+			case "end":
+				listener.end();
+				break;
+			default:
+				// record of a later version
+				break;
+			}
+		}
+	}
+
+	private void readProject(String[] values) {
+		int id = Integer.parseInt(values[1]);
+		MavenProject project = new MavenProject();
+		project.setGroupId(value(values[2]));
+		project.setArtifactId(value(values[3]));
+		project.setVersion(value(values[4]));
+		projects.add(project);
+		if ("-".equals(values[5])) {
+			upstreams[id] = new int[0];
+		} else {
+			String[] ids = values[5].split(",");
+			upstreams[id] = new int[ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				upstreams[id][i] = Integer.parseInt(ids[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return mojo execution of an event, rebuilt once per session
+	 */
+	private MojoExecution mojo(String[] values) {
+		String key = String.join(" ", values[5], values[6], values[7], values[8], values[9], values[10]);
+		return mojos.computeIfAbsent(key, k -> {
+			Plugin plugin = new Plugin();
+			plugin.setGroupId(value(values[5]));
+			plugin.setArtifactId(value(values[6]));
+			plugin.setVersion(value(values[7]));
+			MojoExecution execution = new MojoExecution(plugin, value(values[8]), value(values[9]));
+			execution.setLifecyclePhase(value(values[10]));
+			return execution;
+		});
+	}
+
+	private static Type type(String name) {
+		for (Type type : Type.values()) {
+			if (type.name().equals(name)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	private static String value(String value) {
+		return "-".equals(value) ? null : value;
+	}
+
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+}
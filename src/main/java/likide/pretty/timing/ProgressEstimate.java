@@ -0,0 +1,146 @@
+package likide.pretty.timing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import likide.pretty.model.ReactorState;
+import likide.pretty.model.Status;
+
+/**
+ * Build progress weighted by project durations of previous builds, and estimated time of arrival. Projects without
+ * history weigh the mean of known projects. Output thread only.
+ *
+ * Building projects count up to their estimate; their progress is maintained as projects start, finish and exceed
+ * their estimate, so that computing it does not depend on reactor size.
+ */
+public class ProgressEstimate {
+	private static final byte PLANNED = 0;
+	// building, under estimate
+	private static final byte RUNNING = 1;
+	// building, over estimate
+	private static final byte OVERDUE = 2;
+	private static final byte FINISHED = 3;
+
+	private final long[] estimates;
+	private final boolean known;
+	private final long total;
+	private final long start;
+	private final byte[] phases;
+	private final long[] starts;
+	// running projects by estimated end
+	private final PriorityQueue<Integer> deadlines;
+	// estimated work of finished projects
+	private long done = 0;
+	private int runningCount = 0;
+	private long runningStarts = 0;
+	// estimated work of overdue projects
+	private long overdue = 0;
+
+	/**
+	 * @param start session start time
+	 */
+	public ProgressEstimate(ReactorState state, TimingStore store, long start) {
+		this.start = start;
+		estimates = new long[state.size()];
+		long knownSum = 0;
+		int knownCount = 0;
+		for (int id = 0; id < estimates.length; id++) {
+			estimates[id] = store.estimate(projectKey(state, id));
+			if (estimates[id] != -1) {
+				knownSum += estimates[id];
+				knownCount++;
+			}
+		}
+		known = knownCount > 0;
+		long mean = known ? knownSum / knownCount : 0;
+		for (int id = 0; id < estimates.length; id++) {
+			if (estimates[id] == -1) {
+				estimates[id] = mean;
+			}
+		}
+		total = Arrays.stream(estimates).sum();
+		phases = new byte[estimates.length];
+		starts = new long[estimates.length];
+		deadlines = new PriorityQueue<>(Comparator.comparingLong(id -> starts[id] + estimates[id]));
+	}
+
+	public static String projectKey(ReactorState state, int id) {
+		return state.project(id).getGroupId() + ":" + state.project(id).getArtifactId();
+	}
+
+	/**
+	 * @return true if a previous build gives an estimate
+	 */
+	public boolean isKnown() {
+		return known && total > 0;
+	}
+
+	/**
+	 * @param time project start time; ignored if the project is already started
+	 */
+	public void started(int project, long time) {
+		if (phases[project] != PLANNED) {
+			return;
+		}
+		phases[project] = RUNNING;
+		starts[project] = time;
+		runningCount++;
+		runningStarts += time;
+		deadlines.add(project);
+	}
+
+	public void finished(int project) {
+		if (phases[project] == RUNNING) {
+			runningCount--;
+			runningStarts -= starts[project];
+		} else if (phases[project] == OVERDUE) {
+			overdue -= estimates[project];
+		} else if (phases[project] == FINISHED) {
+			return;
+		}
+		phases[project] = FINISHED;
+		done += estimates[project];
+	}
+
+	/**
+	 * @return estimated completed work, in nanoseconds; building projects count up to their estimate
+	 */
+	public long progress(long now) {
+		for (Integer id = deadlines.peek(); id != null && starts[id] + estimates[id] <= now; id = deadlines.peek()) {
+			deadlines.poll();
+			if (phases[id] == RUNNING) {
+				phases[id] = OVERDUE;
+				runningCount--;
+				runningStarts -= starts[id];
+				overdue += estimates[id];
+			}
+		}
+		// sum of now - start of running projects; exact even if the products overflow
+		long progress = done + overdue + runningCount * now - runningStarts;
+		return Math.min(progress, total);
+	}
+
+	/**
+	 * @return summary suffix with progress percentage and ETA, or an empty string without history
+	 */
+	public String toString(ReactorState state, long now) {
+		if (!isKnown()) {
+			return "";
+		}
+		long progress = progress(now);
+		int percent = (int) (progress * 100 / total);
+		if (progress == 0 || state.count(Status.PLANNED) + state.count(Status.BUILDING) == 0) {
+			return String.format(" - %d%%", percent);
+		}
+		// observed throughput accounts for build parallelism
+		long eta = (long) ((double) (total - progress) * (now - start) / progress);
+		return String.format(" - %d%% - ETA %s", percent, duration(eta));
+	}
+
+	private static String duration(long nanos) {
+		long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+		return seconds >= 60 ? String.format("%dm%02ds", seconds / 60, seconds % 60) : String.format("%ds", seconds);
+	}
+}
@@ -0,0 +1,154 @@
+package likide.pretty.timing;
+
+import java.util.Arrays;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.plugin.MojoExecution;
+
+import likide.pretty.model.ProjectStep;
+
+/**
+ * Project and mojo start / end times, kept in primitive arrays. Times are monotonic ({@link System#nanoTime()}).
+ * Single-threaded: records are fed by the output thread.
+ */
+public class TimingRecorder {
+	private final long[] projectStarts;
+	private final long[] projectEnds;
+	private final long[] projectThreads;
+	// running mojo of each project, or -1
+	private final int[] runningMojos;
+	private int[] mojoProjects = new int[256];
+	private long[] mojoStarts = new long[256];
+	private long[] mojoEnds = new long[256];
+	private long[] mojoThreads = new long[256];
+	// interned coordinates only, executions are not retained
+	private ProjectStep[] mojoSteps = new ProjectStep[256];
+	private int mojoCount = 0;
+
+	public TimingRecorder(int projectCount) {
+		projectStarts = new long[projectCount];
+		projectEnds = new long[projectCount];
+		projectThreads = new long[projectCount];
+		runningMojos = new int[projectCount];
+		Arrays.fill(projectStarts, -1);
+		Arrays.fill(projectEnds, -1);
+		Arrays.fill(runningMojos, -1);
+	}
+
+	public void record(Type type, int project, MojoExecution execution, long time, long thread) {
+		switch (type) {
+		case ProjectStarted:
+			projectStarts[project] = time;
+			projectThreads[project] = thread;
+			break;
+		case ProjectSucceeded:
+		case ProjectFailed:
+			if (projectStarts[project] != -1) {
+				projectEnds[project] = time;
+			}
+			break;
+		case MojoStarted:
+			if (projectStarts[project] == -1) {
+				projectStarts[project] = time;
+				projectThreads[project] = thread;
+			}
+			runningMojos[project] = addMojo(project, execution, time, thread);
+			break;
+		case MojoSucceeded:
+		case MojoFailed:
+			if (runningMojos[project] != -1) {
+				mojoEnds[runningMojos[project]] = time;
+				runningMojos[project] = -1;
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private int addMojo(int project, MojoExecution execution, long time, long thread) {
+		if (mojoCount == mojoProjects.length) {
+			int capacity = mojoCount * 2;
+			mojoProjects = Arrays.copyOf(mojoProjects, capacity);
+			mojoStarts = Arrays.copyOf(mojoStarts, capacity);
+			mojoEnds = Arrays.copyOf(mojoEnds, capacity);
+			mojoThreads = Arrays.copyOf(mojoThreads, capacity);
+			mojoSteps = Arrays.copyOf(mojoSteps, capacity);
+		}
+		mojoProjects[mojoCount] = project;
+		mojoStarts[mojoCount] = time;
+		mojoEnds[mojoCount] = -1;
+		mojoThreads[mojoCount] = thread;
+		mojoSteps[mojoCount] = new ProjectStep(execution, Type.MojoStarted, time, -1);
+		return mojoCount++;
+	}
+
+	public int getProjectCount() {
+		return projectStarts.length;
+	}
+
+	/**
+	 * @return project start time, or -1 if not started
+	 */
+	public long projectStart(int project) {
+		return projectStarts[project];
+	}
+
+	/**
+	 * @return project end time, or -1 if not finished
+	 */
+	public long projectEnd(int project) {
+		return projectEnds[project];
+	}
+
+	/**
+	 * @return id of the thread that built the project
+	 */
+	public long projectThread(int project) {
+		return projectThreads[project];
+	}
+
+	/**
+	 * @return project build duration, 0 if not finished
+	 */
+	public long projectDuration(int project) {
+		return projectEnds[project] != -1 ? projectEnds[project] - projectStarts[project] : 0;
+	}
+
+	public int getMojoCount() {
+		return mojoCount;
+	}
+
+	public int mojoProject(int mojo) {
+		return mojoProjects[mojo];
+	}
+
+	public long mojoStart(int mojo) {
+		return mojoStarts[mojo];
+	}
+
+	/**
+	 * @return mojo end time, or -1 if not finished
+	 */
+	public long mojoEnd(int mojo) {
+		return mojoEnds[mojo];
+	}
+
+	public long mojoThread(int mojo) {
+		return mojoThreads[mojo];
+	}
+
+	/**
+	 * @return mojo coordinates, with start time
+	 */
+	public ProjectStep mojoStep(int mojo) {
+		return mojoSteps[mojo];
+	}
+
+	/**
+	 * @return mojo duration, 0 if not finished
+	 */
+	public long mojoDuration(int mojo) {
+		return mojoEnds[mojo] != -1 ? mojoEnds[mojo] - mojoStarts[mojo] : 0;
+	}
+}
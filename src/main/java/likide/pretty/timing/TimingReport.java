@@ -0,0 +1,210 @@
+package likide.pretty.timing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import likide.pretty.model.ProjectStep;
+import likide.pretty.model.ReactorState;
+import likide.pretty.model.ShortNames;
+import likide.pretty.model.Status;
+
+/**
+ * Build timing analysis: critical path through the project dependency graph, slowest projects and mojos, and Chrome
+ * trace event export.
+ */
+public class TimingReport {
+	private final TimingRecorder recorder;
+	private final ReactorState state;
+
+	public TimingReport(TimingRecorder recorder, ReactorState state) {
+		this.recorder = recorder;
+		this.state = state;
+	}
+
+	/**
+	 * The critical path is the chain of dependent projects with the greatest total build duration; the build cannot
+	 * be faster than this chain, whatever the thread count.
+	 *
+	 * @return project ids of the critical path, upstream first
+	 */
+	public int[] criticalPath() {
+		int size = recorder.getProjectCount();
+		if (size == 0) {
+			return new int[0];
+		}
+		long[] costs = new long[size];
+		int[] previous = new int[size];
+		int last = 0;
+		// session projects are sorted: upstream projects have lower ids
+		for (int id = 0; id < size; id++) {
+			previous[id] = -1;
+			long upstreamCost = 0;
+			for (int upstream : state.upstream(id)) {
+				if (upstream < id && costs[upstream] > upstreamCost) {
+					upstreamCost = costs[upstream];
+					previous[id] = upstream;
+				}
+			}
+			costs[id] = upstreamCost + recorder.projectDuration(id);
+			if (costs[id] > costs[last]) {
+				last = id;
+			}
+		}
+		List<Integer> path = new ArrayList<>();
+		for (int id = last; id != -1; id = previous[id]) {
+			path.add(0, id);
+		}
+		return path.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * @return time between first project start and last project end
+	 */
+	public long wallTime() {
+		long start = Long.MAX_VALUE;
+		long end = Long.MIN_VALUE;
+		for (int id = 0; id < recorder.getProjectCount(); id++) {
+			if (recorder.projectEnd(id) != -1) {
+				start = Math.min(start, recorder.projectStart(id));
+				end = Math.max(end, recorder.projectEnd(id));
+			}
+		}
+		return end >= start ? end - start : 0;
+	}
+
+	/**
+	 * @return ids of the <code>count</code> slowest projects, slowest first
+	 */
+	public int[] slowestProjects(int count) {
+		return IntStream.range(0, recorder.getProjectCount()).boxed()
+				.sorted(Comparator.comparingLong(recorder::projectDuration).reversed())
+				.limit(count).mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * @return indexes of the <code>count</code> slowest mojos, slowest first
+	 */
+	public int[] slowestMojos(int count) {
+		return IntStream.range(0, recorder.getMojoCount()).boxed()
+				.sorted(Comparator.comparingLong(recorder::mojoDuration).reversed())
+				.limit(count).mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * @return report lines: critical path, <code>count</code> slowest projects and mojos
+	 */
+	public List<String> summary(int count) {
+		List<String> lines = new ArrayList<>();
+		int[] path = criticalPath();
+		long pathDuration = 0;
+		for (int id : path) {
+			pathDuration += recorder.projectDuration(id);
+		}
+		lines.add(String.format("Critical path %s of %s wall time: %s", seconds(pathDuration), seconds(wallTime()),
+				IntStream.of(path).mapToObj(id -> String.format("%s %s", artifactId(id), seconds(recorder.projectDuration(id)))).collect(Collectors.joining(" > "))));
+		lines.add(String.format("Slowest modules: %s",
+				IntStream.of(slowestProjects(count)).mapToObj(id -> String.format("%s %s", artifactId(id), seconds(recorder.projectDuration(id)))).collect(Collectors.joining(", "))));
+		lines.add(String.format("Slowest mojos: %s",
+				IntStream.of(slowestMojos(count)).mapToObj(mojo -> String.format("%s %s %s", artifactId(recorder.mojoProject(mojo)), shortGoal(recorder.mojoStep(mojo)), seconds(recorder.mojoDuration(mojo)))).collect(Collectors.joining(", "))));
+		return lines;
+	}
+
+	/**
+	 * @return durations of successful projects and of their mojos, by {@link ProgressEstimate#projectKey(ReactorState, int)}
+	 *         and mojo key
+	 */
+	public Map<String, Long> durations() {
+		Map<String, Long> durations = new HashMap<>();
+		for (int id = 0; id < recorder.getProjectCount(); id++) {
+			if (Status.SUCCESS.equals(state.status(id)) && recorder.projectEnd(id) != -1) {
+				durations.put(ProgressEstimate.projectKey(state, id), recorder.projectDuration(id));
+			}
+		}
+		for (int mojo = 0; mojo < recorder.getMojoCount(); mojo++) {
+			int id = recorder.mojoProject(mojo);
+			if (Status.SUCCESS.equals(state.status(id)) && recorder.mojoEnd(mojo) != -1) {
+				ProjectStep execution = recorder.mojoStep(mojo);
+				durations.put(String.format("%s:%s:%s:%s", ProgressEstimate.projectKey(state, id), execution.getArtifactId(), execution.getGoal(), execution.getExecutionId()),
+						recorder.mojoDuration(mojo));
+			}
+		}
+		return durations;
+	}
+
+	/**
+	 * Write a trace event file, with one track per builder thread; load it in <code>chrome://tracing</code> or
+	 * Perfetto.
+	 */
+	public void writeTrace(Path file) throws IOException {
+		long origin = Long.MAX_VALUE;
+		for (int id = 0; id < recorder.getProjectCount(); id++) {
+			if (recorder.projectStart(id) != -1) {
+				origin = Math.min(origin, recorder.projectStart(id));
+			}
+		}
+		// builder threads are numbered by first use
+		Map<Long, Integer> tracks = new HashMap<>();
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("{\"traceEvents\":[");
+			boolean first = true;
+			for (int id = 0; id < recorder.getProjectCount(); id++) {
+				if (recorder.projectEnd(id) == -1) {
+					continue;
+				}
+				first = writeEvent(writer, first, artifactId(id), "project", recorder.projectStart(id) - origin, recorder.projectDuration(id),
+						track(tracks, recorder.projectThread(id)));
+			}
+			for (int mojo = 0; mojo < recorder.getMojoCount(); mojo++) {
+				if (recorder.mojoEnd(mojo) == -1) {
+					continue;
+				}
+				first = writeEvent(writer, first, shortGoal(recorder.mojoStep(mojo)), "mojo", recorder.mojoStart(mojo) - origin, recorder.mojoDuration(mojo),
+						track(tracks, recorder.mojoThread(mojo)));
+			}
+			for (int track : tracks.values()) {
+				writer.write(String.format(",%n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":\"builder %d\"}}", track, track));
+			}
+			writer.write("]}\n");
+		}
+	}
+
+	private static int track(Map<Long, Integer> tracks, long thread) {
+		return tracks.computeIfAbsent(thread, t -> tracks.size() + 1);
+	}
+
+	private static boolean writeEvent(Writer writer, boolean first, String name, String category, long start, long duration, int track) throws IOException {
+		if (!first) {
+			writer.write(",");
+		}
+		writer.write(String.format("%n{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"X\",\"ts\":%d,\"dur\":%d,\"pid\":1,\"tid\":%d}",
+				escape(name), category, TimeUnit.NANOSECONDS.toMicros(start), TimeUnit.NANOSECONDS.toMicros(duration), track));
+		return false;
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	private String artifactId(int id) {
+		return state.project(id).getArtifactId();
+	}
+
+	private static String shortGoal(ProjectStep execution) {
+		return ShortNames.shortGoal(execution.getArtifactId(), execution.getGoal()) + " (" + execution.getExecutionId() + ")";
+	}
+
+	private static String seconds(long nanos) {
+		return String.format("%.1fs", nanos / 1e9);
+	}
+}
@@ -0,0 +1,214 @@
+package likide.pretty.timing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durations of previous builds, by project or mojo key. The store is a binary file of fixed-size records sorted by key
+ * hash; it is memory-mapped and looked up by binary search, so opening it does not parse it. Each record keeps the
+ * last {@value #HISTORY} durations of its key.
+ *
+ * On Windows, a mapped file cannot be replaced until it is unmapped by garbage collection; the file is read in heap
+ * instead, so that {@link #save(Map)} can replace it.
+ *
+ * <pre>
+ * header: magic (int), version (int), record count (int)
+ * record: key hash (long), last update day (int), sample count (int), samples in ms, newest first (int * HISTORY)
+ * </pre>
+ */
+public class TimingStore {
+	public static final int HISTORY = 5;
+
+	private static final int MAGIC = 0x50545453;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+	private static final int RECORD_SIZE = 16 + HISTORY * 4;
+	// oldest records are dropped above this count
+	private static final int MAX_RECORDS = 100_000;
+	private static final boolean MAPPED = !System.getProperty("os.name").startsWith("Windows");
+
+	private final Path file;
+	private final ByteBuffer records;
+	private final int count;
+
+	private TimingStore(Path file, ByteBuffer records, int count) {
+		this.file = file;
+		this.records = records;
+		this.count = count;
+	}
+
+	/**
+	 * Open <code>file</code>; a missing or invalid file gives an empty store.
+	 */
+	public static TimingStore open(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size >= HEADER_SIZE && size <= HEADER_SIZE + (long) MAX_RECORDS * RECORD_SIZE) {
+				ByteBuffer stored = MAPPED ? channel.map(MapMode.READ_ONLY, 0, size) : read(channel, (int) size);
+				int count = stored.getInt(8);
+				if (stored.getInt(0) == MAGIC && stored.getInt(4) == VERSION && size == HEADER_SIZE + (long) count * RECORD_SIZE) {
+					return new TimingStore(file, stored.position(HEADER_SIZE).slice(), count);
+				}
+			}
+		} catch (IOException e) {
+			// no history
+		}
+		return new TimingStore(file, ByteBuffer.allocate(0), 0);
+	}
+
+	private static ByteBuffer read(FileChannel channel, int size) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(size);
+		while (bytes.hasRemaining() && channel.read(bytes) != -1) {
+			// read fully
+		}
+		return bytes.flip();
+	}
+
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @return mean of recorded durations of <code>key</code> in nanoseconds, or -1 if unknown
+	 */
+	public long estimate(String key) {
+		int record = find(hash(key));
+		if (record < 0) {
+			return -1;
+		}
+		int offset = record * RECORD_SIZE;
+		int samples = records.getInt(offset + 12);
+		long sum = 0;
+		for (int i = 0; i < samples; i++) {
+			sum += records.getInt(offset + 16 + i * 4);
+		}
+		return samples > 0 ? TimeUnit.MILLISECONDS.toNanos(sum / samples) : -1;
+	}
+
+	/**
+	 * Add a duration sample for each key and write the store file. The opened store is not updated.
+	 *
+	 * @param durations durations in nanoseconds, by key
+	 */
+	public void save(Map<String, Long> durations) throws IOException {
+		// sorted by hash, like records
+		SortedMap<Long, Integer> samplesByHash = new TreeMap<>();
+		for (Map.Entry<String, Long> duration : durations.entrySet()) {
+			samplesByHash.put(hash(duration.getKey()), (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(duration.getValue())));
+		}
+		long[] hashes = samplesByHash.keySet().stream().mapToLong(Long::longValue).toArray();
+		int[] millis = samplesByHash.values().stream().mapToInt(Integer::intValue).toArray();
+		int n = hashes.length;
+		int today = (int) TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis());
+		ByteBuffer merged = ByteBuffer.allocate(HEADER_SIZE + (count + n) * RECORD_SIZE);
+		merged.position(HEADER_SIZE);
+		int written = 0;
+		int i = 0;
+		int j = 0;
+		while (i < count || j < n) {
+			long stored = i < count ? records.getLong(i * RECORD_SIZE) : Long.MAX_VALUE;
+			if (j < n && (i >= count || hashes[j] <= stored)) {
+				merged.putLong(hashes[j]).putInt(today);
+				int offset = i * RECORD_SIZE;
+				int samples = hashes[j] == stored ? Math.min(HISTORY - 1, records.getInt(offset + 12)) : 0;
+				merged.putInt(samples + 1).putInt(millis[j]);
+				for (int s = 0; s < HISTORY - 1; s++) {
+					merged.putInt(s < samples ? records.getInt(offset + 16 + s * 4) : 0);
+				}
+				if (hashes[j] == stored) {
+					i++;
+				}
+				j++;
+			} else {
+				merged.put(records.duplicate().position(i * RECORD_SIZE).limit((i + 1) * RECORD_SIZE));
+				i++;
+			}
+			written++;
+		}
+		if (written > MAX_RECORDS) {
+			written = evict(merged, written);
+		}
+		merged.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, written);
+		merged.limit(HEADER_SIZE + written * RECORD_SIZE).position(0);
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		// unique per save: concurrent builds may save the same store
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+				while (merged.hasRemaining()) {
+					channel.write(merged);
+				}
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Keep the {@link #MAX_RECORDS} most recently updated records, in hash order.
+	 *
+	 * @return kept record count
+	 */
+	private static int evict(ByteBuffer merged, int count) {
+		int[] days = new int[count];
+		for (int i = 0; i < count; i++) {
+			days[i] = merged.getInt(HEADER_SIZE + i * RECORD_SIZE + 8);
+		}
+		int[] sortedDays = days.clone();
+		Arrays.sort(sortedDays);
+		int threshold = sortedDays[count - MAX_RECORDS];
+		// records of threshold day are kept while room is left
+		int thresholdRoom = MAX_RECORDS - (int) Arrays.stream(days).filter(day -> day > threshold).count();
+		int kept = 0;
+		byte[] bytes = merged.array();
+		for (int i = 0; i < count; i++) {
+			if (days[i] > threshold || (days[i] == threshold && thresholdRoom-- > 0)) {
+				System.arraycopy(bytes, HEADER_SIZE + i * RECORD_SIZE, bytes, HEADER_SIZE + kept * RECORD_SIZE, RECORD_SIZE);
+				kept++;
+			}
+		}
+		return kept;
+	}
+
+	private int find(long hash) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long value = records.getLong(middle * RECORD_SIZE);
+			if (value < hash) {
+				low = middle + 1;
+			} else if (value > hash) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 64-bit FNV-1a hash of <code>key</code>.
+	 */
+	static long hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,80 @@
+package likide.pretty.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent with each count of busy builder threads. Output thread only.
+ */
+public class Utilization {
+	private static final int BAR_WIDTH = 30;
+
+	private final int threads;
+	// time by busy thread count; index threads collects any excess (-T lower than actual builders)
+	private final long[] busyTimes;
+	private int busy = 0;
+	private long lastChange = -1;
+
+	public Utilization(int threads) {
+		this.threads = threads;
+		this.busyTimes = new long[threads + 1];
+	}
+
+	/**
+	 * @param busy busy builder thread count from <code>time</code>
+	 */
+	public void update(int busy, long time) {
+		if (lastChange != -1) {
+			busyTimes[Math.min(this.busy, threads)] += time - lastChange;
+		}
+		this.busy = busy;
+		this.lastChange = time;
+	}
+
+	/**
+	 * @return time spent with <code>busy</code> busy builder threads
+	 */
+	public long busyTime(int busy) {
+		return busyTimes[busy];
+	}
+
+	/**
+	 * @return sum of idle time of each builder thread
+	 */
+	public long idleTime() {
+		long idle = 0;
+		for (int i = 0; i <= threads; i++) {
+			idle += (threads - i) * busyTimes[i];
+		}
+		return idle;
+	}
+
+	public long totalTime() {
+		long total = 0;
+		for (long busyTime : busyTimes) {
+			total += busyTime;
+		}
+		return total;
+	}
+
+	/**
+	 * @return idle thread time summary and a histogram line per busy thread count
+	 */
+	public List<String> histogram() {
+		List<String> lines = new ArrayList<>();
+		long total = totalTime();
+		long max = 1;
+		for (long busyTime : busyTimes) {
+			max = Math.max(max, busyTime);
+		}
+		lines.add(String.format("Builder utilization (%d threads): idle %.1f thread-seconds (%d%%)",
+				threads, idleTime() / 1e9, total > 0 ? idleTime() * 100 / (total * threads) : 0));
+		int labelWidth = Integer.toString(threads).length();
+		for (int i = 0; i <= threads; i++) {
+			int bar = (int) (busyTimes[i] * BAR_WIDTH / max);
+			lines.add(String.format("  %" + labelWidth + "d busy |%-" + BAR_WIDTH + "s %.1fs", i, "#".repeat(bar), TimeUnit.NANOSECONDS.toMillis(busyTimes[i]) / 1e3));
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,97 @@
+package likide.pretty.transfer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transfer counters of a repository. Updated by resolver threads without lock.
+ */
+public class RepositoryStats {
+	// latency bucket upper bounds: 16ms, 64ms, 256ms, 1s, 4s, 16s, more
+	private static final long FIRST_BUCKET_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+	private static final int BUCKETS = 7;
+	private static final String[] BUCKET_NAMES = { "<16ms", "<64ms", "<256ms", "<1s", "<4s", "<16s", ">=16s" };
+
+	private final String name;
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder succeeded = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder corrupted = new LongAdder();
+	private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS);
+
+	RepositoryStats(String name) {
+		this.name = name;
+	}
+
+	void addBytes(long count) {
+		bytes.add(count);
+	}
+
+	void succeeded(long latency) {
+		succeeded.increment();
+		latencies.incrementAndGet(bucket(latency));
+	}
+
+	void failed(long latency) {
+		failed.increment();
+		latencies.incrementAndGet(bucket(latency));
+	}
+
+	void corrupted() {
+		corrupted.increment();
+	}
+
+	static int bucket(long latency) {
+		int bucket = 0;
+		for (long bound = FIRST_BUCKET_NANOS; latency >= bound && bucket < BUCKETS - 1; bound *= 4) {
+			bucket++;
+		}
+		return bucket;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	public long getSucceeded() {
+		return succeeded.sum();
+	}
+
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	public long getCorrupted() {
+		return corrupted.sum();
+	}
+
+	/**
+	 * @return completed transfer count by latency bucket
+	 */
+	public long[] getLatencies() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = latencies.get(i);
+		}
+		return counts;
+	}
+
+	/**
+	 * @return latency distribution, non-empty buckets only
+	 */
+	public String latencyDistribution() {
+		StringBuilder distribution = new StringBuilder();
+		long[] counts = getLatencies();
+		for (int i = 0; i < BUCKETS; i++) {
+			if (counts[i] > 0) {
+				distribution.append(distribution.length() > 0 ? ", " : "").append(BUCKET_NAMES[i]).append(' ').append(counts[i]);
+			}
+		}
+		return distribution.toString();
+	}
+}
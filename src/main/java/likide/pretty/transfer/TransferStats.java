@@ -0,0 +1,223 @@
+package likide.pretty.transfer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * Artifact transfer statistics: in-flight transfers, bytes by repository and latency distribution. Transfer callbacks
+ * come from many resolver threads and never lock; {@link #throughput(long)} is for the output thread only.
+ */
+public class TransferStats {
+	// throughput is averaged on at least this duration
+	private static final long THROUGHPUT_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final Map<TransferResource, ActiveTransfer> active = new ConcurrentHashMap<>();
+	private final Map<String, RepositoryStats> repositories = new ConcurrentHashMap<>();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder transfers = new LongAdder();
+	// output thread only
+	private long windowStart = -1;
+	private long windowBytes = 0;
+	private long throughput = 0;
+
+	public void initiated(TransferResource resource, long time) {
+		active.put(resource, new ActiveTransfer(resource, repository(resource), time));
+	}
+
+	public void progressed(TransferResource resource, int length) {
+		bytes.add(length);
+		ActiveTransfer transfer = active.get(resource);
+		if (transfer != null) {
+			transfer.bytes.addAndGet(length);
+			transfer.repository.addBytes(length);
+		}
+	}
+
+	public void succeeded(TransferResource resource, long time) {
+		ActiveTransfer transfer = active.remove(resource);
+		if (transfer != null) {
+			transfers.increment();
+			transfer.repository.succeeded(time - transfer.start);
+		}
+	}
+
+	public void failed(TransferResource resource, long time) {
+		ActiveTransfer transfer = active.remove(resource);
+		if (transfer != null) {
+			transfers.increment();
+			transfer.repository.failed(time - transfer.start);
+		}
+	}
+
+	public void corrupted(TransferResource resource) {
+		ActiveTransfer transfer = active.get(resource);
+		(transfer != null ? transfer.repository : repository(resource)).corrupted();
+	}
+
+	private RepositoryStats repository(TransferResource resource) {
+		String name = resource.getRepositoryId() != null && !resource.getRepositoryId().isEmpty() ? resource.getRepositoryId() : resource.getRepositoryUrl();
+		return repositories.computeIfAbsent(name, RepositoryStats::new);
+	}
+
+	public int inFlight() {
+		return active.size();
+	}
+
+	public long getBytes() {
+		return bytes.sum();
+	}
+
+	/**
+	 * @return completed (succeeded or failed) transfer count
+	 */
+	public long getTransfers() {
+		return transfers.sum();
+	}
+
+	public Collection<RepositoryStats> getRepositories() {
+		return repositories.values();
+	}
+
+	/**
+	 * @return aggregate bytes per second, updated once per second; output thread only
+	 */
+	public long throughput(long now) {
+		if (windowStart == -1) {
+			windowStart = now;
+			windowBytes = getBytes();
+		} else if (now - windowStart >= THROUGHPUT_WINDOW_NANOS) {
+			long total = getBytes();
+			throughput = (total - windowBytes) * TimeUnit.SECONDS.toNanos(1) / (now - windowStart);
+			windowStart = now;
+			windowBytes = total;
+		}
+		return throughput;
+	}
+
+	/**
+	 * @return in-flight transfer with the lowest rate, or null
+	 */
+	public ActiveTransfer slowest(long now) {
+		ActiveTransfer slowest = null;
+		long slowestRate = Long.MAX_VALUE;
+		for (ActiveTransfer transfer : active.values()) {
+			long rate = transfer.rate(now);
+			if (rate < slowestRate) {
+				slowest = transfer;
+				slowestRate = rate;
+			}
+		}
+		return slowest;
+	}
+
+	/**
+	 * @return in-flight transfer count, throughput and slowest transfer; output thread only
+	 */
+	public Snapshot snapshot(long now) {
+		ActiveTransfer slowest = slowest(now);
+		return new Snapshot(inFlight(), throughput(now), slowest != null ? slowest.getName() : null, slowest != null ? slowest.rate(now) : 0);
+	}
+
+	/**
+	 * @return total, failure and per repository latency report lines
+	 */
+	public List<String> summary() {
+		List<String> lines = new ArrayList<>();
+		long failed = repositories.values().stream().mapToLong(RepositoryStats::getFailed).sum();
+		long corrupted = repositories.values().stream().mapToLong(RepositoryStats::getCorrupted).sum();
+		lines.add(String.format("Transferred %s in %d transfers (%d failed, %d corrupted)", size(getBytes()), getTransfers(), failed, corrupted));
+		for (RepositoryStats repository : repositories.values()) {
+			lines.add(String.format("  %s: %s, %d ok, %d failed, %d corrupted, latency %s", repository.getName(), size(repository.getBytes()),
+					repository.getSucceeded(), repository.getFailed(), repository.getCorrupted(), repository.latencyDistribution()));
+		}
+		return lines;
+	}
+
+	public static String size(long bytes) {
+		if (bytes >= 1024 * 1024) {
+			return String.format("%.1f MB", bytes / (1024. * 1024.));
+		} else if (bytes >= 1024) {
+			return String.format("%.1f KB", bytes / 1024.);
+		} else {
+			return String.format("%d B", bytes);
+		}
+	}
+
+	/**
+	 * Live transfer values, as shown while building.
+	 */
+	public static final class Snapshot {
+		private final int inFlight;
+		private final long throughput;
+		private final String slowestName;
+		private final long slowestRate;
+
+		/**
+		 * @param slowestName null if no transfer is in flight
+		 */
+		public Snapshot(int inFlight, long throughput, String slowestName, long slowestRate) {
+			this.inFlight = inFlight;
+			this.throughput = throughput;
+			this.slowestName = slowestName;
+			this.slowestRate = slowestRate;
+		}
+
+		public int getInFlight() {
+			return inFlight;
+		}
+
+		/**
+		 * @return aggregate bytes per second
+		 */
+		public long getThroughput() {
+			return throughput;
+		}
+
+		public String getSlowestName() {
+			return slowestName;
+		}
+
+		/**
+		 * @return bytes per second of the slowest transfer
+		 */
+		public long getSlowestRate() {
+			return slowestRate;
+		}
+	}
+
+	public static class ActiveTransfer {
+		private final TransferResource resource;
+		private final RepositoryStats repository;
+		private final long start;
+		private final AtomicLong bytes = new AtomicLong();
+
+		private ActiveTransfer(TransferResource resource, RepositoryStats repository, long start) {
+			this.resource = resource;
+			this.repository = repository;
+			this.start = start;
+		}
+
+		/**
+		 * @return bytes per second since transfer initiation
+		 */
+		public long rate(long now) {
+			return now > start ? bytes.get() * TimeUnit.SECONDS.toNanos(1) / (now - start) : 0;
+		}
+
+		/**
+		 * @return resource file name
+		 */
+		public String getName() {
+			String name = resource.getResourceName();
+			return name.substring(name.lastIndexOf('/') + 1);
+		}
+	}
+}
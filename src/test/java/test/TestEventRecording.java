@@ -0,0 +1,92 @@
+package test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import likide.pretty.model.ReactorState;
+import likide.pretty.replay.EventReader;
+import likide.pretty.replay.EventRecorder;
+
+public class TestEventRecording {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testRoundTrip() throws Exception {
+		MavenProject api = TestProjectStatus.project("api");
+		api.setGroupId("g");
+		api.setVersion("1.0");
+		MavenProject core = TestProjectStatus.project("core");
+		List<MavenProject> projects = List.of(api, core);
+		ReactorState state = new ReactorState(projects, TestTimingReport.graph(projects, Map.of(core, List.of(api))), 2);
+		Plugin plugin = new Plugin();
+		plugin.setArtifactId("maven-compiler-plugin");
+		MojoExecution compile = new MojoExecution(plugin, "compile", "default-compile");
+		compile.setLifecyclePhase("compile");
+
+		Path file = directory.resolve("events.bin");
+		try (EventRecorder recorder = new EventRecorder(file)) {
+			recorder.session(state, 1000);
+			recorder.event(Type.ProjectStarted, 0, null, 1010, 7);
+			recorder.event(Type.MojoStarted, 0, compile, 1020, 7);
+			recorder.event(Type.MojoSucceeded, 0, compile, 1030, 7);
+			recorder.event(Type.MojoStarted, 1, compile, 1040, 8);
+		}
+
+		List<String> events = new ArrayList<>();
+		List<MojoExecution> executions = new ArrayList<>();
+		try (EventReader reader = new EventReader(file)) {
+			reader.read(new EventReader.Listener() {
+				@Override
+				public void session(ReactorState recorded, long time) {
+					Assertions.assertThat(time).isEqualTo(1000);
+					Assertions.assertThat(recorded.size()).isEqualTo(2);
+					Assertions.assertThat(recorded.getThreads()).isEqualTo(2);
+					Assertions.assertThat(recorded.project(0).getGroupId()).isEqualTo("g");
+					Assertions.assertThat(recorded.project(0).getArtifactId()).isEqualTo("api");
+					Assertions.assertThat(recorded.project(0).getVersion()).isEqualTo("1.0");
+					Assertions.assertThat(recorded.upstream(1)).containsExactly(0);
+				}
+
+				@Override
+				public void event(Type type, int project, MojoExecution execution, long time, long thread) {
+					events.add(String.format("%s %d %d %d", type, project, time, thread));
+					if (execution != null) {
+						executions.add(execution);
+					}
+				}
+			});
+		}
+		Assertions.assertThat(events).containsExactly("ProjectStarted 0 10 7", "MojoStarted 0 20 7", "MojoSucceeded 0 30 7", "MojoStarted 1 40 8");
+		// a mojo execution is rebuilt once
+		Assertions.assertThat(executions).hasSize(3).allSatisfy(execution -> Assertions.assertThat(execution).isSameAs(executions.get(0)));
+		Assertions.assertThat(executions.get(0).getArtifactId()).isEqualTo("maven-compiler-plugin");
+		Assertions.assertThat(executions.get(0).getExecutionId()).isEqualTo("default-compile");
+		Assertions.assertThat(executions.get(0).getLifecyclePhase()).isEqualTo("compile");
+	}
+
+	@Test
+	void testRecordedGraph() {
+		List<MavenProject> projects = List.of(TestProjectStatus.project("api"), TestProjectStatus.project("core"), TestProjectStatus.project("web"),
+				TestProjectStatus.project("app"));
+		// app -> web -> core -> api, app -> api
+		ProjectDependencyGraph graph = EventReader.graph(projects, new int[][] { {}, { 0 }, { 1 }, { 2, 0 } });
+		Assertions.assertThat(graph.getUpstreamProjects(projects.get(3), false)).containsExactly(projects.get(0), projects.get(2));
+		Assertions.assertThat(graph.getUpstreamProjects(projects.get(3), true)).containsExactly(projects.get(0), projects.get(1), projects.get(2));
+		Assertions.assertThat(graph.getDownstreamProjects(projects.get(0), false)).containsExactly(projects.get(1), projects.get(3));
+		Assertions.assertThat(graph.getDownstreamProjects(projects.get(1), true)).containsExactly(projects.get(2), projects.get(3));
+		Assertions.assertThat(graph.getDownstreamProjects(projects.get(3), true)).isEmpty();
+	}
+}
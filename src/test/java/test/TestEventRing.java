@@ -0,0 +1,77 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import likide.pretty.EventRing;
+
+public class TestEventRing {
+
+	@Test
+	void testFull() {
+		EventRing ring = new EventRing(4);
+		for (int i = 0; i < 4; i++) {
+			Assertions.assertThat(ring.offer(Type.MojoStarted, 0, null, i, 0)).isTrue();
+		}
+		Assertions.assertThat(ring.offer(Type.MojoStarted, 0, null, 4, 0)).isFalse();
+		List<Long> times = new ArrayList<>();
+		Assertions.assertThat(ring.drain((type, project, execution, time, thread) -> times.add(time))).isEqualTo(4);
+		Assertions.assertThat(times).containsExactly(0l, 1l, 2l, 3l);
+		Assertions.assertThat(ring.offer(Type.MojoStarted, 0, null, 4, 0)).isTrue();
+	}
+
+	@Test
+	void testProducers() throws InterruptedException {
+		EventRing ring = new EventRing(64);
+		int producers = 8;
+		int count = 10000;
+		AtomicBoolean done = new AtomicBoolean(false);
+		long[] lastTimes = new long[producers];
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			// time encodes producer and sequence
+			long base = p * 1_000_000l;
+			Thread thread = new Thread(() -> {
+				for (int i = 1; i <= count; i++) {
+					while (!ring.offer(Type.MojoStarted, 0, null, base + i, 0)) {
+						Thread.yield();
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		Thread watcher = new Thread(() -> {
+			for (Thread thread : threads) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			done.set(true);
+		});
+		watcher.start();
+		int consumed = 0;
+		boolean ordered = true;
+		while (!done.get() || ring.size() > 0) {
+			int[] drained = new int[1];
+			boolean[] inOrder = new boolean[] { true };
+			ring.drain((type, project, execution, time, thread) -> {
+				int producer = (int) (time / 1_000_000l);
+				inOrder[0] &= time > lastTimes[producer];
+				lastTimes[producer] = time;
+				drained[0]++;
+			});
+			consumed += drained[0];
+			ordered &= inOrder[0];
+		}
+		Assertions.assertThat(consumed).isEqualTo(producers * count);
+		Assertions.assertThat(ordered).isTrue();
+	}
+}
@@ -0,0 +1,71 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import likide.pretty.FrameRenderer;
+
+public class TestFrameRenderer {
+
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	private final FrameRenderer renderer = new FrameRenderer(new PrintStream(bytes), StandardCharsets.UTF_8);
+
+	@Test
+	void testFirstFrame() {
+		renderer.render(List.of(), List.of("a", "b"), 80);
+		Assertions.assertThat(written()).isEqualTo("a\033[K\nb\033[K\n");
+	}
+
+	@Test
+	void testUnchangedFrame() {
+		renderer.render(List.of(), List.of("a", "b"), 80);
+		written();
+		Assertions.assertThat(renderer.render(List.of(), List.of("a", "b"), 80)).isZero();
+		Assertions.assertThat(written()).isEmpty();
+	}
+
+	@Test
+	void testChangedLine() {
+		renderer.render(List.of(), List.of("a", "b", "c"), 80);
+		written();
+		renderer.render(List.of(), List.of("a", "B", "c"), 80);
+		Assertions.assertThat(written()).isEqualTo("\033[3A\033[1BB\033[K\n\033[1B");
+	}
+
+	@Test
+	void testShorterFrame() {
+		renderer.render(List.of(), List.of("a", "b", "c"), 80);
+		written();
+		renderer.render(List.of(), List.of("a"), 80);
+		Assertions.assertThat(written()).isEqualTo("\033[3A\033[1B\033[J");
+	}
+
+	@Test
+	void testFinishedLines() {
+		renderer.render(List.of(), List.of("b", "c"), 80);
+		written();
+		// finished line shifts live area; "c" is written on the row previously used by "c"
+		renderer.render(List.of("a"), List.of("x", "c"), 80);
+		Assertions.assertThat(written()).isEqualTo("\033[2Aa\033[K\nx\033[K\nc\033[K\n");
+	}
+
+	@Test
+	void testWidthChange() {
+		renderer.render(List.of(), List.of("a"), 80);
+		written();
+		renderer.render(List.of(), List.of("a"), 40);
+		Assertions.assertThat(written()).isEqualTo("\033[1Aa\033[K\n");
+		Assertions.assertThat(renderer.getFrameCount()).isEqualTo(2);
+	}
+
+	private String written() {
+		String result = bytes.toString(StandardCharsets.UTF_8);
+		bytes.reset();
+		return result;
+	}
+}
@@ -0,0 +1,69 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import likide.pretty.LineRenderer;
+
+public class TestLineRenderer {
+
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+	@Test
+	void testFinishedLines() {
+		LineRenderer renderer = renderer(false, 1, TimeUnit.HOURS);
+		renderer.render(List.of("\033[1;32m✔\033[0m api", "\033[1;31m✘\033[0m core"), List.of("building", "summary"), 80);
+		Assertions.assertThat(written()).isEqualTo("✔ api\n✘ core\n");
+		// live lines are not written
+		renderer.render(List.of("tools"), List.of("summary"), 80);
+		Assertions.assertThat(written()).isEqualTo("tools\n");
+		Assertions.assertThat(renderer.getFrameCount()).isEqualTo(2);
+	}
+
+	@Test
+	void testColor() {
+		LineRenderer renderer = renderer(true, 1, TimeUnit.HOURS);
+		renderer.render(List.of("\033[1;32m✔\033[0m api"), List.of(), 80);
+		Assertions.assertThat(written()).isEqualTo("\033[1;32m✔\033[0m api\n");
+	}
+
+	@Test
+	void testSummaryInterval() {
+		LineRenderer renderer = renderer(false, 1, TimeUnit.HOURS);
+		Assertions.assertThat(renderer.render(List.of(), List.of("summary 1"), 80)).isZero();
+		Assertions.assertThat(renderer.render(List.of(), List.of("summary 2"), 80)).isZero();
+		Assertions.assertThat(written()).isEmpty();
+		// last summary is written at end of build
+		renderer.close();
+		Assertions.assertThat(written()).isEqualTo("summary 2\n");
+		Assertions.assertThat(renderer.getFrameCount()).isEqualTo(1);
+	}
+
+	@Test
+	void testChangedSummary() {
+		LineRenderer renderer = renderer(false, 0, TimeUnit.SECONDS);
+		renderer.render(List.of(), List.of("\033[1msummary\033[0m 1"), 80);
+		Assertions.assertThat(written()).isEqualTo("summary 1\n");
+		// unchanged summary is not repeated
+		Assertions.assertThat(renderer.render(List.of(), List.of("\033[1msummary\033[0m 1"), 80)).isZero();
+		renderer.close();
+		Assertions.assertThat(written()).isEmpty();
+		Assertions.assertThat(renderer.getFrameCount()).isEqualTo(1);
+	}
+
+	private LineRenderer renderer(boolean color, long summaryInterval, TimeUnit unit) {
+		return new LineRenderer(new PrintStream(bytes), StandardCharsets.UTF_8, color, summaryInterval, unit);
+	}
+
+	private String written() {
+		String result = bytes.toString(StandardCharsets.UTF_8);
+		bytes.reset();
+		return result;
+	}
+}
@@ -0,0 +1,204 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import likide.pretty.capture.OutputCapture;
+import likide.pretty.capture.TestProgress;
+import likide.pretty.metrics.LatencyHistogram;
+
+public class TestOutputCapture {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testProjectLogs() throws Exception {
+		ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+		OutputCapture capture = new OutputCapture(directory, List.of("module-a", "module-b", "module-a"), new LatencyHistogram(), fallback);
+		PrintStream out = new PrintStream(capture, false, StandardCharsets.UTF_8);
+		Thread a = new Thread(() -> {
+			capture.attach(0);
+			for (int i = 0; i < 1000; i++) {
+				out.println("a" + i);
+			}
+		});
+		Thread b = new Thread(() -> {
+			capture.attach(1);
+			for (int i = 0; i < 1000; i++) {
+				out.println("b" + i);
+			}
+			capture.attach(-1);
+			out.println("unattributed");
+		});
+		a.start();
+		b.start();
+		a.join();
+		b.join();
+		capture.close();
+		out.println("late");
+
+		Assertions.assertThat(lines(directory.resolve("modules/module-a.log"))).hasSize(1000).startsWith("a0").endsWith("a999");
+		Assertions.assertThat(lines(directory.resolve("modules/module-b.log"))).hasSize(1000).startsWith("b0").endsWith("b999");
+		Assertions.assertThat(directory.resolve("modules/module-a-2.log")).doesNotExist();
+		List<String> combined = lines(capture.getCombinedFile());
+		Assertions.assertThat(combined).hasSize(2001).contains("a500", "b500", "unattributed");
+		// late output goes to the replaced stream
+		Assertions.assertThat(fallback.toString(StandardCharsets.UTF_8)).isEqualTo("late" + System.lineSeparator());
+	}
+
+	@Test
+	void testDeadThreadOutput() throws Exception {
+		OutputCapture capture = new OutputCapture(directory, List.of("module-a"));
+		PrintStream out = new PrintStream(capture, false, StandardCharsets.UTF_8);
+		Thread thread = new Thread(() -> {
+			capture.attach(0);
+			out.println("buffered");
+			out.flush();
+		});
+		thread.start();
+		thread.join();
+		// output of a dead thread is handed off by the writer without close
+		List<String> tail = List.of();
+		for (int i = 0; i < 100 && tail.isEmpty(); i++) {
+			Thread.sleep(50);
+			tail = capture.tail(0, 1, 100, TimeUnit.MILLISECONDS);
+		}
+		Assertions.assertThat(tail).containsExactly("buffered");
+		capture.close();
+	}
+
+	@Test
+	void testWriterFailure() throws Exception {
+		// module log cannot be created
+		Files.createDirectories(directory.resolve("modules/module-a.log"));
+		ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+		OutputCapture capture = new OutputCapture(directory, List.of("module-a"), new LatencyHistogram(), fallback);
+		PrintStream out = new PrintStream(capture, true, StandardCharsets.UTF_8);
+		capture.attach(0);
+		for (int i = 0; i < 100 && fallback.size() == 0; i++) {
+			out.println("line " + i);
+			capture.release();
+			Thread.sleep(10);
+		}
+		// output is written directly once writer failed
+		Assertions.assertThat(fallback.toString(StandardCharsets.UTF_8)).startsWith("line ");
+		capture.close();
+	}
+
+	@Test
+	void testTail() throws Exception {
+		OutputCapture capture = new OutputCapture(directory, List.of("module-a", "module-b"));
+		PrintStream out = new PrintStream(capture, true, StandardCharsets.UTF_8);
+		capture.attach(0);
+		out.println("first mojo");
+		capture.attach(0);
+		for (int i = 0; i < 5000; i++) {
+			out.println("a" + i);
+			if (i % 100 == 0) {
+				// interleave other project output
+				capture.attach(1);
+				out.println("b" + i);
+				capture.release();
+				capture.attach(0);
+			}
+		}
+		capture.release();
+
+		Assertions.assertThat(capture.tail(0, 3, 10, TimeUnit.SECONDS)).containsExactly("a4997", "a4998", "a4999");
+		Assertions.assertThat(capture.tail(1, 10, 10, TimeUnit.SECONDS)).containsExactly("b4900");
+		capture.close();
+		// tail is limited to the last mojo execution
+		Assertions.assertThat(capture.tail(0, 200, 10, TimeUnit.SECONDS)).hasSize(99).startsWith("a4901").endsWith("a4999");
+	}
+
+	@Test
+	void testTailWithoutWait() throws Exception {
+		OutputCapture capture = new OutputCapture(directory, List.of("module"));
+		PrintStream out = new PrintStream(capture, true, StandardCharsets.UTF_8);
+		capture.attach(0);
+		out.println("failure");
+		capture.release();
+		long mark = capture.handedOff();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!capture.isWritten(mark) && System.nanoTime() - deadline < 0) {
+			Thread.sleep(1);
+		}
+		Assertions.assertThat(capture.isWritten(mark)).isTrue();
+		Assertions.assertThat(capture.tail(0, 5)).containsExactly("failure");
+		capture.close();
+		Assertions.assertThat(capture.isWritten(Long.MAX_VALUE)).isTrue();
+	}
+
+	@Test
+	void testTestProgress() throws Exception {
+		OutputCapture capture = new OutputCapture(directory, List.of("module-a", "module-b"));
+		PrintStream out = new PrintStream(capture, true, StandardCharsets.UTF_8);
+		capture.attach(1);
+		out.println("[INFO] Running com.foo.\033[1mBarTest\033[m");
+		out.println("[INFO] Tests run: \033[1m12\033[m, Failures: 0, Errors: 0, Skipped: 2, Time elapsed: 0.5 s - in com.foo.BarTest");
+		// forked output pumped by a thread started by the builder thread
+		Thread pumper = new Thread(() -> {
+			out.println("Running com.foo.BazTest");
+			out.print("[ERROR] Tests run: 3, Failures: 1, Err");
+			out.print("ors: 1, Skipped: 0, Time elapsed: 0.1 s <<< FAILURE! - in com.foo.BazTest\r\n");
+		});
+		pumper.start();
+		pumper.join();
+		// summaries and other output are not counted
+		out.println("[WARNING] Tests run: 15, Failures: 1, Errors: 1, Skipped: 2");
+		out.println("Not Running anything");
+		capture.attach(0);
+		out.println("Tests run: 1, Failures: 0, Errors: 0, Skipped: 0, Time elapsed: 0.1 s - in com.foo.QuxTest");
+		capture.close();
+
+		TestProgress progress = capture.getTestProgress();
+		Assertions.assertThat(progress.classes(1)).isEqualTo(2);
+		Assertions.assertThat(progress.run(1)).isEqualTo(15);
+		Assertions.assertThat(progress.failed(1)).isEqualTo(2);
+		Assertions.assertThat(progress.skipped(1)).isEqualTo(2);
+		Assertions.assertThat(progress.classes(0)).isZero();
+		Assertions.assertThat(progress.run(0)).isEqualTo(1);
+		Assertions.assertThat(lines(directory.resolve("modules/module-b.log"))).contains("Running com.foo.BazTest");
+	}
+
+	@Test
+	void testTestProgressByMojo() throws Exception {
+		OutputCapture capture = new OutputCapture(directory, List.of("module-a"));
+		PrintStream out = new PrintStream(capture, true, StandardCharsets.UTF_8);
+		TestProgress progress = capture.getTestProgress();
+		// surefire
+		capture.attach(0);
+		out.println("[INFO] Running com.foo.BarTest");
+		out.println("[ERROR] Tests run: 12, Failures: 1, Errors: 1, Skipped: 2, Time elapsed: 0.5 s <<< FAILURE! - in com.foo.BarTest");
+		Assertions.assertThat(progress.classes(0)).isEqualTo(1);
+		Assertions.assertThat(progress.run(0)).isEqualTo(12);
+		capture.release();
+		// failsafe counts its own tests only
+		capture.attach(0);
+		Assertions.assertThat(progress.classes(0)).isZero();
+		Assertions.assertThat(progress.run(0)).isZero();
+		out.println("[INFO] Running com.foo.BarIT");
+		out.println("[INFO] Tests run: 3, Failures: 0, Errors: 0, Skipped: 1, Time elapsed: 2.1 s - in com.foo.BarIT");
+		capture.release();
+		capture.close();
+		Assertions.assertThat(progress.classes(0)).isEqualTo(1);
+		Assertions.assertThat(progress.run(0)).isEqualTo(3);
+		Assertions.assertThat(progress.failed(0)).isZero();
+		Assertions.assertThat(progress.skipped(0)).isEqualTo(1);
+	}
+
+	private static List<String> lines(Path file) throws IOException {
+		return Files.readAllLines(file, StandardCharsets.UTF_8);
+	}
+}
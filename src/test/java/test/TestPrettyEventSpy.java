@@ -0,0 +1,179 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import likide.pretty.Config;
+import likide.pretty.PrettyEventSpy;
+
+public class TestPrettyEventSpy {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@Timeout(value = 30, unit = TimeUnit.SECONDS)
+	@SuppressWarnings("deprecation")
+	void testConsecutiveSessions() throws Exception {
+		// open files of this process, on Linux
+		Path fds = Paths.get("/proc/self/fd");
+		PrintStream systemOut = System.out;
+		PrintStream systemErr = System.err;
+		ByteArrayOutputStream rendered = new ByteArrayOutputStream();
+		PrintStream output = new PrintStream(rendered, true, StandardCharsets.UTF_8);
+		try {
+			System.setOut(output);
+			PrettyEventSpy spy = new PrettyEventSpy(new Config(true, 20, 10, 10, directory.resolve("timings.bin"), null, null, -1));
+			Plugin plugin = new Plugin();
+			plugin.setArtifactId("maven-compiler-plugin");
+			MojoExecution compile = new MojoExecution(plugin, "compile", "default-compile");
+			// daemon: sessions one after the other with the same spy
+			for (int session = 0; session < 2; session++) {
+				MavenProject project = TestProjectStatus.project("module-" + session);
+				DefaultMavenExecutionRequest request = new DefaultMavenExecutionRequest();
+				MavenSession mavenSession = new MavenSession(null, request, new DefaultMavenExecutionResult(), List.of(project));
+				spy.onEvent(request);
+				spy.onEvent(new Event(Type.SessionStarted, mavenSession, null, null));
+				Assertions.assertThat(System.out).isNotSameAs(output);
+				spy.onEvent(new Event(Type.ProjectStarted, mavenSession, project, null));
+				spy.onEvent(new Event(Type.MojoStarted, mavenSession, project, compile));
+				System.out.println("compiling " + session);
+				spy.onEvent(new Event(Type.MojoSucceeded, mavenSession, project, compile));
+				spy.onEvent(new Event(Type.ProjectSucceeded, mavenSession, project, null));
+				spy.onEvent(new Event(Type.SessionEnded, mavenSession, project, null));
+
+				Assertions.assertThat(System.out).isSameAs(output);
+				Assertions.assertThat(System.err).isSameAs(systemErr);
+				if (Files.isDirectory(fds)) {
+					// session logs are closed
+					Assertions.assertThat(openLogs(fds)).isZero();
+				}
+			}
+			Assertions.assertThat(rendered.toString(StandardCharsets.UTF_8)).contains("Built 1/1 projects", "module-0", "module-1");
+		} finally {
+			System.setOut(systemOut);
+			System.setErr(systemErr);
+		}
+	}
+
+	@Test
+	@Timeout(value = 30, unit = TimeUnit.SECONDS)
+	@SuppressWarnings("deprecation")
+	void testFrameCadence() throws Exception {
+		PrintStream systemOut = System.out;
+		PrintStream systemErr = System.err;
+		Path metricsFile = directory.resolve("metrics.txt");
+		try {
+			System.setOut(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+			// 20 frames per second at most; spinner steps every 500 ms
+			PrettyEventSpy spy = new PrettyEventSpy(new Config(true, 20, 10, 10, directory.resolve("timings.bin"), metricsFile, null, -1));
+			Plugin plugin = new Plugin();
+			plugin.setArtifactId("maven-compiler-plugin");
+			MojoExecution compile = new MojoExecution(plugin, "compile", "default-compile");
+			MavenProject project = TestProjectStatus.project("module");
+			DefaultMavenExecutionRequest request = new DefaultMavenExecutionRequest();
+			MavenSession mavenSession = new MavenSession(null, request, new DefaultMavenExecutionResult(), List.of(project));
+			spy.onEvent(request);
+			long start = System.nanoTime();
+			spy.onEvent(new Event(Type.SessionStarted, mavenSession, null, null));
+			spy.onEvent(new Event(Type.ProjectStarted, mavenSession, project, null));
+			// idle: woken up by spinner steps only
+			Thread.sleep(1200);
+			long burstStart = System.nanoTime();
+			// burst: coalesced by frame rate limit
+			for (int i = 0; i < 1000; i++) {
+				spy.onEvent(new Event(Type.MojoStarted, mavenSession, project, compile));
+				spy.onEvent(new Event(Type.MojoSucceeded, mavenSession, project, compile));
+			}
+			long burstMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - burstStart);
+			spy.onEvent(new Event(Type.ProjectSucceeded, mavenSession, project, null));
+			spy.onEvent(new Event(Type.SessionEnded, mavenSession, project, null));
+			long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			long frames = Files.readAllLines(metricsFile).stream()
+					.filter(line -> line.startsWith("maven_pretty_frame_render_seconds_count "))
+					.mapToLong(line -> Long.parseLong(line.substring(line.indexOf(' ') + 1)))
+					.findFirst().getAsLong();
+			// at least two spinner steps while idle
+			Assertions.assertThat(frames).isGreaterThanOrEqualTo(3);
+			// spinner steps, one frame per 50 ms of burst, first and last frames, one early timer wake-up
+			Assertions.assertThat(frames).isLessThanOrEqualTo(totalMillis / 500 + 1 + burstMillis / 50 + 1 + 3);
+		} finally {
+			System.setOut(systemOut);
+			System.setErr(systemErr);
+		}
+	}
+
+	private static long openLogs(Path fds) throws IOException {
+		try (Stream<Path> links = Files.list(fds)) {
+			return links.filter(link -> {
+				try {
+					return Files.readSymbolicLink(link).toString().endsWith(".log");
+				} catch (IOException e) {
+					// closed meanwhile
+					return false;
+				}
+			}).count();
+		}
+	}
+
+	private static class Event implements ExecutionEvent {
+		private final Type type;
+		private final MavenSession session;
+		private final MavenProject project;
+		private final MojoExecution execution;
+
+		Event(Type type, MavenSession session, MavenProject project, MojoExecution execution) {
+			this.type = type;
+			this.session = session;
+			this.project = project;
+			this.execution = execution;
+		}
+
+		@Override
+		public Type getType() {
+			return type;
+		}
+
+		@Override
+		public MavenSession getSession() {
+			return session;
+		}
+
+		@Override
+		public MavenProject getProject() {
+			return project;
+		}
+
+		@Override
+		public MojoExecution getMojoExecution() {
+			return execution;
+		}
+
+		@Override
+		public Exception getException() {
+			return null;
+		}
+	}
+}
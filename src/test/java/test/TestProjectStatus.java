@@ -0,0 +1,116 @@
+package test;
+
+import java.util.List;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import likide.pretty.TermString;
+import likide.pretty.model.ProjectStatus;
+import likide.pretty.model.ProjectStep;
+import likide.pretty.model.ReactorState;
+import likide.pretty.model.Status;
+
+public class TestProjectStatus {
+
+	@Test
+	void testPhases() {
+		ProjectStatus status = new ProjectStatus(project("module"));
+		status.update(Status.BUILDING, step("maven-resources-plugin", "resources", "process-resources", Type.MojoStarted));
+		Assertions.assertThat(status.lastPhases(0)).isEqualTo("process-resources\033[1;33m․\033[0m");
+		status.update(Status.BUILDING, step("maven-resources-plugin", "resources", "process-resources", Type.MojoSucceeded));
+		status.update(Status.BUILDING, step("maven-compiler-plugin", "compile", "compile", Type.MojoStarted));
+		Assertions.assertThat(status.lastPhases(0)).isEqualTo("process-resources, compile\033[1;33m․\033[0m");
+		status.update(Status.BUILDING, step("maven-compiler-plugin", "compile", "compile", Type.MojoSucceeded));
+		status.update(Status.BUILDING, step("maven-compiler-plugin", "testCompile", "compile", Type.MojoStarted));
+		Assertions.assertThat(status.lastPhases(0)).isEqualTo("process-resources, compile\033[1;33m․\033[0m");
+		status.update(Status.BUILDING, step("maven-compiler-plugin", "testCompile", "compile", Type.MojoSucceeded));
+		status.update(Status.SUCCESS, null);
+		Assertions.assertThat(status.getPreviousSteps()).hasSize(3);
+		Assertions.assertThat(status.toString(0)).isEqualTo("\033[1;32m✔\033[0m module: \033[38;5;8mprocess-resources … compile\033[0m");
+	}
+
+	@Test
+	void testPluginWithoutPhase() {
+		ProjectStatus status = new ProjectStatus(project("module"));
+		status.update(Status.BUILDING, step("maven-dependency-plugin", "tree", null, Type.MojoSucceeded));
+		status.update(Status.SUCCESS, null);
+		Assertions.assertThat(status.lastPhases(0)).isEqualTo("\033[38;5;8mdependency:tree\033[0m");
+	}
+
+	@Test
+	void testTests() {
+		ProjectStatus status = new ProjectStatus(project("module"));
+		status.update(Status.BUILDING, step("maven-surefire-plugin", "test", "test", Type.MojoStarted));
+		status.tests(2, 12, 0);
+		Assertions.assertThat(status.toString(0)).endsWith("test\033[1;33m․\033[0m \033[38;5;8m2 classes, 12 tests\033[0m");
+		status.tests(3, 13, 1);
+		Assertions.assertThat(status.toString(0)).endsWith("\033[38;5;8m3 classes, 13 tests\033[0m\033[38;5;8m, \033[0m\033[1;31m1 failed\033[0m");
+	}
+
+	@Test
+	void testTestsAfterTestMojo() {
+		ProjectStatus status = new ProjectStatus(project("module"));
+		status.update(Status.BUILDING, step("maven-surefire-plugin", "test", "test", Type.MojoStarted));
+		status.tests(2, 12, 0);
+		status.update(Status.BUILDING, step("maven-surefire-plugin", "test", "test", Type.MojoSucceeded));
+		Assertions.assertThat(status.toString(0)).endsWith("\033[38;5;8m2 classes, 12 tests\033[0m");
+		// counts are not shown by later mojos
+		status.update(Status.BUILDING, step("maven-jar-plugin", "jar", "package", Type.MojoStarted));
+		status.tests(2, 12, 0);
+		Assertions.assertThat(status.toString(0)).endsWith("test, package\033[1;33m․\033[0m");
+		status.update(Status.BUILDING, step("maven-jar-plugin", "jar", "package", Type.MojoSucceeded));
+		status.update(Status.BUILDING, step("maven-failsafe-plugin", "integration-test", "integration-test", Type.MojoStarted));
+		status.tests(3, 14, 0);
+		Assertions.assertThat(status.toString(0)).endsWith("integration-test\033[1;33m․\033[0m \033[38;5;8m3 classes, 14 tests\033[0m");
+	}
+
+	@Test
+	void testFittedLine() {
+		ProjectStatus status = new ProjectStatus(project("module"));
+		status.update(Status.BUILDING, step("maven-compiler-plugin", "compile", "compile", Type.MojoStarted));
+		String fitted = status.toString(0, 12);
+		Assertions.assertThat(TermString.width(fitted)).isEqualTo(12);
+		Assertions.assertThat(fitted).endsWith(">");
+		// reused until the line or width changes
+		Assertions.assertThat(status.toString(0, 12)).isSameAs(fitted);
+		Assertions.assertThat(status.toString(0, 200)).isSameAs(status.toString(0));
+		status.update(Status.BUILDING, step("maven-compiler-plugin", "compile", "compile", Type.MojoSucceeded));
+		Assertions.assertThat(status.toString(0, 200)).isSameAs(status.toString(0)).isNotEqualTo(fitted);
+	}
+
+	@Test
+	void testCompactFinished() {
+		ReactorState state = new ReactorState(List.of(project("module")));
+		state.update(0, Status.BUILDING, step("maven-compiler-plugin", "compile", "compile", Type.MojoSucceeded));
+		ProjectStatus finished = state.update(0, Status.SUCCESS, null);
+		Assertions.assertThat(finished.isCompact()).isTrue();
+		Assertions.assertThat(state.project(0)).isSameAs(finished);
+		Assertions.assertThat(finished.getPreviousSteps()).isEmpty();
+		Assertions.assertThat(finished.getArtifactId()).isEqualTo("module");
+		Assertions.assertThat(finished.toString(10)).isEqualTo("\033[1;32m✔\033[0m module: \033[38;5;8mcompile\033[0m");
+
+		// built again, as a new status
+		ProjectStatus rebuilt = state.update(0, Status.BUILDING, step("maven-compiler-plugin", "compile", "compile", Type.MojoStarted));
+		Assertions.assertThat(rebuilt.isCompact()).isFalse();
+		Assertions.assertThat(rebuilt.lastPhases(0)).isEqualTo("compile\033[1;33m․\033[0m");
+	}
+
+	static MavenProject project(String artifactId) {
+		MavenProject project = new MavenProject();
+		project.setArtifactId(artifactId);
+		return project;
+	}
+
+	static ProjectStep step(String artifactId, String goal, String phase, Type type) {
+		Plugin plugin = new Plugin();
+		plugin.setArtifactId(artifactId);
+		MojoExecution execution = new MojoExecution(plugin, goal, "default-" + goal);
+		execution.setLifecyclePhase(phase);
+		return new ProjectStep(execution, type);
+	}
+}
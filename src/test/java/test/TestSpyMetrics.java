@@ -0,0 +1,74 @@
+package test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import likide.pretty.metrics.LatencyHistogram;
+import likide.pretty.metrics.SpyMetrics;
+
+public class TestSpyMetrics {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assertions.assertThat(histogram.percentile(0.5)).isZero();
+		for (int i = 0; i < 90; i++) {
+			// below 128 µs
+			histogram.record(100_000);
+		}
+		for (int i = 0; i < 10; i++) {
+			// below 16 ms
+			histogram.record(10_000_000);
+		}
+		Assertions.assertThat(histogram.getCount()).isEqualTo(100);
+		Assertions.assertThat(histogram.percentile(0.5)).isEqualTo(128_000);
+		Assertions.assertThat(histogram.percentile(0.9)).isEqualTo(128_000);
+		Assertions.assertThat(histogram.percentile(0.99)).isEqualTo(16_384_000);
+	}
+
+	@Test
+	void testExposition() throws Exception {
+		SpyMetrics metrics = new SpyMetrics();
+		metrics.event(Type.MojoStarted);
+		metrics.event(Type.MojoStarted);
+		metrics.queueDepth(12);
+		metrics.queueDepth(3);
+		metrics.frameRendered(100_000, 4096);
+		metrics.terminalInitialized(2_500_000);
+
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		ObjectName name = new ObjectName("likide.pretty:type=PrettyEventSpy");
+		server.registerMBean(metrics, name);
+		Assertions.assertThat(server.getAttribute(name, "QueueHighWaterMark")).isEqualTo(12);
+		Assertions.assertThat(server.getAttribute(name, "TerminalBytesWritten")).isEqualTo(4096l);
+		Assertions.assertThat(server.getAttribute(name, "TerminalInitMillis")).isEqualTo(2.5);
+
+		Path file = directory.resolve("metrics.txt");
+		metrics.writeOpenMetrics(file);
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		Assertions.assertThat(lines).contains(
+				"maven_pretty_events_total{type=\"MojoStarted\"} 2",
+				"maven_pretty_queue_depth 3",
+				"maven_pretty_queue_high_water_mark 12",
+				"maven_pretty_frame_render_seconds{quantile=\"0.5\"} 0.000128",
+				"maven_pretty_frame_render_seconds_count 1",
+				"maven_pretty_terminal_bytes_total 4096",
+				"maven_pretty_terminal_init_seconds 0.002500",
+				"maven_pretty_capture_write_seconds_count 0")
+				.endsWith("# EOF");
+	}
+}
@@ -0,0 +1,154 @@
+package test;
+
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import likide.pretty.model.ProjectStep;
+import likide.pretty.model.ReactorState;
+import likide.pretty.model.Status;
+import likide.pretty.status.StatusPublisher;
+import likide.pretty.status.StatusReader;
+import likide.pretty.transfer.TransferStats.Snapshot;
+
+public class TestStatusPublisher {
+
+	@Test
+	@Timeout(value = 30, unit = TimeUnit.SECONDS)
+	void testRoundTrip() throws Exception {
+		MavenProject api = TestProjectStatus.project("api");
+		api.setGroupId("g");
+		api.setVersion("1.0");
+		MavenProject core = TestProjectStatus.project("core");
+		List<MavenProject> projects = List.of(api, core);
+		ReactorState state = new ReactorState(projects, TestTimingReport.graph(projects, Map.of(core, List.of(api))), 2);
+		Plugin plugin = new Plugin();
+		plugin.setArtifactId("maven-compiler-plugin");
+		MojoExecution compile = new MojoExecution(plugin, "compile", "default-compile");
+		compile.setLifecyclePhase("compile");
+
+		List<String> early = new ArrayList<>();
+		List<String> late = new ArrayList<>();
+		Socket earlySocket;
+		Socket lateSocket;
+		try (StatusPublisher publisher = StatusPublisher.open(0)) {
+			// nothing is published without client
+			Assertions.assertThat(publisher.connect(state)).isFalse();
+			publisher.session(state, 1000);
+			earlySocket = connect(publisher);
+			awaitClients(publisher, state, 1);
+			publisher.event(Type.ProjectStarted, 0, null, 1010, 7);
+			publisher.event(Type.MojoStarted, 0, compile, 1020, 7);
+			state.update(0, Status.BUILDING, new ProjectStep(compile, Type.MojoStarted, 1020, -1));
+			publisher.tests(0, 2, 10, 1, 0);
+			// unchanged counts are not published again
+			publisher.tests(0, 2, 10, 1, 0);
+			publisher.transfers(new Snapshot(1, 2048, "core-1.0.jar", 512));
+			publisher.frame(1050);
+
+			lateSocket = connect(publisher);
+			awaitClients(publisher, state, 2);
+			publisher.transfers(new Snapshot(0, 0, null, 0));
+			publisher.frame(1060);
+			publisher.end();
+		}
+		// publisher closed: clients read up to end of stream
+		try (earlySocket; lateSocket) {
+			new StatusReader(earlySocket.getInputStream()).read(new Recorder(early));
+			new StatusReader(lateSocket.getInputStream()).read(new Recorder(late));
+		}
+		Assertions.assertThat(early).containsExactly(
+				"session 2 [api, core] [[], [0]]",
+				"event ProjectStarted 0 10 7",
+				"event MojoStarted 0 20 7 maven-compiler-plugin:compile default-compile compile",
+				"tests 0 2 10 1 0",
+				"transfers 1 2048 core-1.0.jar 512",
+				"frame 50",
+				"transfers 0 0 null 0",
+				"frame 60",
+				"end");
+		// late client receives a snapshot of current state
+		Assertions.assertThat(late).containsExactly(
+				"session 2 [api, core] [[], [0]]",
+				"event MojoStarted 0 20 0 maven-compiler-plugin:compile default-compile compile",
+				"tests 0 2 10 1 0",
+				"transfers 0 0 null 0",
+				"frame 60",
+				"end");
+	}
+
+	private static Socket connect(StatusPublisher publisher) throws Exception {
+		Socket socket = new Socket(publisher.getAddress().getAddress(), publisher.getAddress().getPort());
+		// fail instead of blocking if a record is missing
+		socket.setSoTimeout(5000);
+		return socket;
+	}
+
+	/**
+	 * Connect publisher to clients accepted by its thread, until <code>count</code> clients are connected.
+	 */
+	private static void awaitClients(StatusPublisher publisher, ReactorState state, int count) throws InterruptedException {
+		publisher.connect(state);
+		for (int i = 0; i < 500 && publisher.getClientCount() < count; i++) {
+			Thread.sleep(10);
+			publisher.connect(state);
+		}
+		Assertions.assertThat(publisher.getClientCount()).isEqualTo(count);
+	}
+
+	private static class Recorder implements StatusReader.Listener {
+		private final List<String> records;
+
+		Recorder(List<String> records) {
+			this.records = records;
+		}
+
+		@Override
+		public void session(ReactorState state, long time) {
+			List<String> names = new ArrayList<>();
+			List<String> upstreams = new ArrayList<>();
+			for (int id = 0; id < state.size(); id++) {
+				names.add(state.project(id).getArtifactId());
+				upstreams.add(Arrays.toString(state.upstream(id)));
+			}
+			records.add(String.format("session %d %s %s", state.getThreads(), names, upstreams));
+		}
+
+		@Override
+		public void event(Type type, int project, MojoExecution execution, long time, long thread) {
+			records.add(String.format("event %s %d %d %d", type, project, time, thread)
+					+ (execution != null ? String.format(" %s:%s %s %s", execution.getArtifactId(), execution.getGoal(), execution.getExecutionId(), execution.getLifecyclePhase()) : ""));
+		}
+
+		@Override
+		public void tests(int project, int classes, int run, int failed, int skipped) {
+			records.add(String.format("tests %d %d %d %d %d", project, classes, run, failed, skipped));
+		}
+
+		@Override
+		public void transfers(Snapshot transfers) {
+			records.add(String.format("transfers %d %d %s %d", transfers.getInFlight(), transfers.getThroughput(), transfers.getSlowestName(), transfers.getSlowestRate()));
+		}
+
+		@Override
+		public void frame(long time) {
+			records.add("frame " + time);
+		}
+
+		@Override
+		public void end() {
+			records.add("end");
+		}
+	}
+}
@@ -4,6 +4,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import likide.pretty.PrettyEventSpy;
+import likide.pretty.TermString;
 
 public class TestTermString {
 
@@ -55,4 +56,19 @@ public class TestTermString {
 		Assertions.assertThat(PrettyEventSpy.ellipsize("\033[1mshort\033[0m \033[1mshort\033[0m", 4, ">", 1)).isEqualTo("\033[1msho\033[0m>");
 	}
 
+	@Test
+	void testTrailingText() {
+		Assertions.assertThat(PrettyEventSpy.ellipsize("\033[1m3/5\033[0m projects", 20)).isEqualTo("\033[1m3/5\033[0m projects");
+		Assertions.assertThat(PrettyEventSpy.ellipsize("\033[1m3/5\033[0m projects", 8, ">", 1)).isEqualTo("\033[1m3/5\033[0m pro>");
+	}
+
+	@Test
+	void testWide() {
+		Assertions.assertThat(TermString.width("\033[1;32m✔\033[0m 模块")).isEqualTo(6);
+		Assertions.assertThat(PrettyEventSpy.ellipsize("模块模块", 5)).isEqualTo("模块");
+		Assertions.assertThat(PrettyEventSpy.ellipsize("模块模块", 5, ">", 1)).isEqualTo("模块>");
+		Assertions.assertThat(PrettyEventSpy.ellipsize("a模块", 4, ">", 1)).isEqualTo("a模>");
+		Assertions.assertThat(PrettyEventSpy.ellipsize("\033[1;33m…\033[0m ✔ ⧖", 5)).isEqualTo("\033[1;33m…\033[0m ✔ ⧖");
+	}
+
 }
@@ -0,0 +1,92 @@
+package test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.execution.ExecutionEvent.Type;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import likide.pretty.model.ReactorState;
+import likide.pretty.timing.TimingRecorder;
+import likide.pretty.timing.TimingReport;
+
+public class TestTimingReport {
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * api (2s) &lt;- core (5s) &lt;- app (1s), and api &lt;- tools (4s): core is on the critical path, tools is not.
+	 */
+	@Test
+	void testCriticalPath() throws Exception {
+		MavenProject api = TestProjectStatus.project("api");
+		MavenProject core = TestProjectStatus.project("core");
+		MavenProject tools = TestProjectStatus.project("tools");
+		MavenProject app = TestProjectStatus.project("app");
+		List<MavenProject> projects = List.of(api, core, tools, app);
+		ReactorState state = new ReactorState(projects, graph(projects, Map.of(core, List.of(api), tools, List.of(api), app, List.of(core, api))), 1);
+		TimingRecorder recorder = new TimingRecorder(projects.size());
+		build(recorder, 0, 0, 2, 1);
+		build(recorder, 1, 2, 7, 1);
+		build(recorder, 2, 2, 6, 2);
+		build(recorder, 3, 7, 8, 1);
+
+		TimingReport report = new TimingReport(recorder, state);
+		Assertions.assertThat(report.criticalPath()).containsExactly(0, 1, 3);
+		Assertions.assertThat(report.wallTime()).isEqualTo(8_000_000_000l);
+		Assertions.assertThat(report.slowestProjects(2)).containsExactly(1, 2);
+		Assertions.assertThat(report.summary(2)).first().asString().startsWith("Critical path 8.0s of 8.0s wall time: api 2.0s > core 5.0s > app 1.0s");
+
+		Path trace = directory.resolve("trace.json");
+		report.writeTrace(trace);
+		String json = Files.readString(trace, StandardCharsets.UTF_8);
+		Assertions.assertThat(json).startsWith("{\"traceEvents\":[").endsWith("]}\n")
+				.contains("{\"name\":\"core\",\"cat\":\"project\",\"ph\":\"X\",\"ts\":2000000,\"dur\":5000000,\"pid\":1,\"tid\":1}")
+				.contains("{\"name\":\"compiler:compile (default-compile)\",\"cat\":\"mojo\",\"ph\":\"X\",\"ts\":2000000,\"dur\":4000000,\"pid\":1,\"tid\":2}")
+				.contains("\"args\":{\"name\":\"builder 2\"}");
+	}
+
+	private static void build(TimingRecorder recorder, int project, long start, long end, long thread) {
+		Plugin plugin = new Plugin();
+		plugin.setArtifactId("maven-compiler-plugin");
+		MojoExecution execution = new MojoExecution(plugin, "compile", "default-compile");
+		recorder.record(Type.ProjectStarted, project, null, start * 1_000_000_000l, thread);
+		recorder.record(Type.MojoStarted, project, execution, start * 1_000_000_000l, thread);
+		recorder.record(Type.MojoSucceeded, project, execution, end * 1_000_000_000l, thread);
+		recorder.record(Type.ProjectSucceeded, project, null, end * 1_000_000_000l, thread);
+	}
+
+	static ProjectDependencyGraph graph(List<MavenProject> projects, Map<MavenProject, List<MavenProject>> upstreams) {
+		return new ProjectDependencyGraph() {
+			@Override
+			public List<MavenProject> getAllProjects() {
+				return projects;
+			}
+
+			@Override
+			public List<MavenProject> getSortedProjects() {
+				return projects;
+			}
+
+			@Override
+			public List<MavenProject> getDownstreamProjects(MavenProject project, boolean transitive) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public List<MavenProject> getUpstreamProjects(MavenProject project, boolean transitive) {
+				return upstreams.getOrDefault(project, List.of());
+			}
+		};
+	}
+}
@@ -0,0 +1,118 @@
+package test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.apache.maven.project.MavenProject;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import likide.pretty.model.ReactorState;
+import likide.pretty.timing.ProgressEstimate;
+import likide.pretty.timing.TimingStore;
+
+public class TestTimingStore {
+
+	private static final long SECOND = 1_000_000_000l;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void testRollingHistory() throws Exception {
+		Path file = directory.resolve("history/timings.bin");
+		Assertions.assertThat(TimingStore.open(file).estimate("g:a")).isEqualTo(-1);
+		TimingStore.open(file).save(Map.of("g:a", 10 * SECOND, "g:b", 1 * SECOND));
+		TimingStore.open(file).save(Map.of("g:a", 20 * SECOND, "g:c", 3 * SECOND));
+
+		TimingStore store = TimingStore.open(file);
+		Assertions.assertThat(store.size()).isEqualTo(3);
+		Assertions.assertThat(store.estimate("g:a")).isEqualTo(15 * SECOND);
+		Assertions.assertThat(store.estimate("g:b")).isEqualTo(1 * SECOND);
+		Assertions.assertThat(store.estimate("g:c")).isEqualTo(3 * SECOND);
+		Assertions.assertThat(store.estimate("g:d")).isEqualTo(-1);
+
+		// only last samples are kept
+		for (int i = 0; i < TimingStore.HISTORY; i++) {
+			TimingStore.open(file).save(Map.of("g:a", 2 * SECOND));
+		}
+		Assertions.assertThat(TimingStore.open(file).estimate("g:a")).isEqualTo(2 * SECOND);
+	}
+
+	@Test
+	void testInvalidFile() throws Exception {
+		Path file = directory.resolve("timings.bin");
+		Files.writeString(file, "not a timing store");
+		TimingStore store = TimingStore.open(file);
+		Assertions.assertThat(store.size()).isZero();
+		store.save(Map.of("g:a", SECOND));
+		Assertions.assertThat(TimingStore.open(file).estimate("g:a")).isEqualTo(SECOND);
+	}
+
+	@Test
+	void testConcurrentSaves() throws Exception {
+		Path file = directory.resolve("timings.bin");
+		ExecutorService builds = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> saves = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				String key = "g:" + i;
+				saves.add(builds.submit(() -> {
+					TimingStore.open(file).save(Map.of(key, SECOND));
+					return null;
+				}));
+			}
+			for (Future<?> save : saves) {
+				save.get();
+			}
+		} finally {
+			builds.shutdown();
+		}
+		// a save replaces the store with a complete file, and leaves no temporary file
+		Assertions.assertThat(TimingStore.open(file).size()).isPositive();
+		try (Stream<Path> files = Files.list(directory)) {
+			Assertions.assertThat(files).containsExactly(file);
+		}
+	}
+
+	@Test
+	void testProgressEstimate() throws Exception {
+		Path file = directory.resolve("timings.bin");
+		TimingStore.open(file).save(Map.of("g:a", 10 * SECOND, "g:b", 20 * SECOND));
+		List<MavenProject> projects = List.of(project("a"), project("b"), project("c"));
+		ReactorState state = new ReactorState(projects, TestTimingReport.graph(projects, Collections.emptyMap()), 2);
+		// c weighs the mean of a and b
+		ProgressEstimate estimate = new ProgressEstimate(state, TimingStore.open(file), 0);
+		Assertions.assertThat(estimate.progress(0)).isZero();
+
+		estimate.started(0, 0);
+		estimate.started(1, 5 * SECOND);
+		Assertions.assertThat(estimate.progress(8 * SECOND)).isEqualTo(11 * SECOND);
+		// a counts up to its estimate
+		Assertions.assertThat(estimate.progress(15 * SECOND)).isEqualTo(20 * SECOND);
+		// start is kept from the first start event
+		estimate.started(1, 14 * SECOND);
+		estimate.finished(0);
+		Assertions.assertThat(estimate.progress(16 * SECOND)).isEqualTo(21 * SECOND);
+		estimate.started(2, 16 * SECOND);
+		estimate.finished(1);
+		Assertions.assertThat(estimate.progress(18 * SECOND)).isEqualTo(32 * SECOND);
+		estimate.finished(2);
+		Assertions.assertThat(estimate.progress(60 * SECOND)).isEqualTo(45 * SECOND);
+	}
+
+	private static MavenProject project(String artifactId) {
+		MavenProject project = TestProjectStatus.project(artifactId);
+		project.setGroupId("g");
+		return project;
+	}
+}
@@ -0,0 +1,73 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.eclipse.aether.transfer.TransferResource;
+import org.junit.jupiter.api.Test;
+
+import likide.pretty.transfer.TransferStats;
+
+public class TestTransferStats {
+
+	private static final long MS = 1_000_000l;
+
+	@Test
+	void testRepositories() {
+		TransferStats stats = new TransferStats();
+		TransferResource jar = resource("central", "org/example/lib/1.0/lib-1.0.jar");
+		TransferResource pom = resource("central", "org/example/lib/1.0/lib-1.0.pom");
+		TransferResource missing = resource("snapshots", "org/example/lib/1.0/lib-1.0.pom");
+		stats.initiated(jar, 0);
+		stats.initiated(pom, 0);
+		stats.initiated(missing, 0);
+		stats.progressed(jar, 4096);
+		stats.progressed(pom, 1024);
+		Assertions.assertThat(stats.inFlight()).isEqualTo(3);
+		Assertions.assertThat(stats.slowest(1000 * MS).getName()).isEqualTo("lib-1.0.pom");
+		stats.succeeded(pom, 10 * MS);
+		stats.failed(missing, 100 * MS);
+		stats.progressed(jar, 4096);
+		stats.corrupted(jar);
+		stats.succeeded(jar, 2000 * MS);
+
+		Assertions.assertThat(stats.inFlight()).isZero();
+		Assertions.assertThat(stats.getBytes()).isEqualTo(9216);
+		Assertions.assertThat(stats.getTransfers()).isEqualTo(3);
+		List<String> summary = new ArrayList<>(stats.summary());
+		Assertions.assertThat(summary.remove(0)).isEqualTo("Transferred 9.0 KB in 3 transfers (1 failed, 1 corrupted)");
+		Assertions.assertThat(summary).containsExactlyInAnyOrder(
+				"  central: 9.0 KB, 2 ok, 0 failed, 1 corrupted, latency <16ms 1, <4s 1",
+				"  snapshots: 0 B, 0 ok, 1 failed, 0 corrupted, latency <256ms 1");
+	}
+
+	@Test
+	void testParallelTransfers() throws InterruptedException {
+		TransferStats stats = new TransferStats();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			String name = "lib-" + t + ".jar";
+			Thread thread = new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					TransferResource resource = resource("central", i + "/" + name);
+					stats.initiated(resource, 0);
+					stats.progressed(resource, 10);
+					stats.succeeded(resource, MS);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assertions.assertThat(stats.getBytes()).isEqualTo(80000);
+		Assertions.assertThat(stats.getTransfers()).isEqualTo(8000);
+		Assertions.assertThat(stats.getRepositories()).singleElement().satisfies(repository -> Assertions.assertThat(repository.getSucceeded()).isEqualTo(8000));
+	}
+
+	private static TransferResource resource(String repositoryId, String name) {
+		return new TransferResource(repositoryId, "https://repo.example.org/" + repositoryId + "/", name, null, null);
+	}
+}
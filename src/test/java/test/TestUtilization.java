@@ -0,0 +1,96 @@
+package test;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.project.MavenProject;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import likide.pretty.model.ReactorState;
+import likide.pretty.model.Status;
+import likide.pretty.timing.Utilization;
+
+public class TestUtilization {
+
+	private static final long SECOND = 1_000_000_000l;
+
+	/**
+	 * api &lt;- core, api &lt;- tools, core &lt;- app
+	 */
+	@Test
+	void testReadyBlocked() {
+		MavenProject api = TestProjectStatus.project("api");
+		MavenProject core = TestProjectStatus.project("core");
+		MavenProject tools = TestProjectStatus.project("tools");
+		MavenProject app = TestProjectStatus.project("app");
+		List<MavenProject> projects = List.of(api, core, tools, app);
+		ReactorState state = new ReactorState(projects, TestTimingReport.graph(projects, Map.of(core, List.of(api), tools, List.of(api), app, List.of(core))), 2);
+		Assertions.assertThat(state.ready()).isEqualTo(1);
+		Assertions.assertThat(state.blocked()).isEqualTo(3);
+		state.update(0, Status.BUILDING, null);
+		Assertions.assertThat(state.ready()).isZero();
+		state.update(0, Status.SUCCESS, null);
+		Assertions.assertThat(state.ready()).isEqualTo(2);
+		Assertions.assertThat(state.blocked()).isEqualTo(1);
+		state.update(1, Status.BUILDING, null);
+		state.update(1, Status.FAILED, null);
+		Assertions.assertThat(state.ready()).isEqualTo(2);
+		state.update(3, Status.SKIPPED, null);
+		state.update(2, Status.BUILDING, null);
+		Assertions.assertThat(state.ready()).isZero();
+		Assertions.assertThat(state.blocked()).isZero();
+	}
+
+	/**
+	 * api &lt;- core; tools
+	 */
+	@Test
+	void testBusyFromProjectStart() {
+		MavenProject api = TestProjectStatus.project("api");
+		MavenProject core = TestProjectStatus.project("core");
+		MavenProject tools = TestProjectStatus.project("tools");
+		List<MavenProject> projects = List.of(api, core, tools);
+		ReactorState state = new ReactorState(projects, TestTimingReport.graph(projects, Map.of(core, List.of(api))), 2);
+		// started, no mojo yet
+		state.started(0);
+		state.update(0, Status.PLANNED, null);
+		Assertions.assertThat(state.busy()).isEqualTo(1);
+		Assertions.assertThat(state.ready()).isEqualTo(1);
+		Assertions.assertThat(state.blocked()).isEqualTo(1);
+		state.update(0, Status.BUILDING, null);
+		state.started(0);
+		Assertions.assertThat(state.busy()).isEqualTo(1);
+		state.started(2);
+		Assertions.assertThat(state.busy()).isEqualTo(2);
+		Assertions.assertThat(state.ready()).isZero();
+		state.update(0, Status.SUCCESS, null);
+		Assertions.assertThat(state.busy()).isEqualTo(1);
+		Assertions.assertThat(state.ready()).isEqualTo(1);
+		Assertions.assertThat(state.blocked()).isZero();
+		state.update(2, Status.FAILED, null);
+		Assertions.assertThat(state.busy()).isZero();
+	}
+
+	@Test
+	void testHistogram() {
+		Utilization utilization = new Utilization(4);
+		utilization.update(0, 0);
+		utilization.update(1, 1 * SECOND);
+		utilization.update(4, 3 * SECOND);
+		utilization.update(2, 5 * SECOND);
+		utilization.update(0, 8 * SECOND);
+		Assertions.assertThat(utilization.busyTime(1)).isEqualTo(2 * SECOND);
+		Assertions.assertThat(utilization.busyTime(2)).isEqualTo(3 * SECOND);
+		Assertions.assertThat(utilization.busyTime(4)).isEqualTo(2 * SECOND);
+		// 1s * 4 + 2s * 3 + 3s * 2
+		Assertions.assertThat(utilization.idleTime()).isEqualTo(16 * SECOND);
+		Assertions.assertThat(utilization.histogram()).containsExactly(
+				"Builder utilization (4 threads): idle 16.0 thread-seconds (50%)",
+				"  0 busy |##########                     1.0s",
+				"  1 busy |####################           2.0s",
+				"  2 busy |############################## 3.0s",
+				"  3 busy |                               0.0s",
+				"  4 busy |####################           2.0s");
+	}
+}